@@ -0,0 +1,51 @@
+package com.systeminfo.display;
+
+import android.app.Notification;
+import android.app.NotificationChannel;
+import android.app.NotificationManager;
+import android.app.PendingIntent;
+import android.content.Context;
+import android.content.Intent;
+import android.os.Build;
+
+// Posts one local notification per alert, so an alert is seen even when nobody
+// is looking at the dashboard. A notification stays after its alert clears,
+// as a record that it happened, and is replaced if the same alert fires again.
+// Tapping it brings the dashboard back to the front.
+public class AlertNotifier {
+    private static final String CHANNEL_ID = "alerts";
+
+    private final Context context;
+    private final NotificationManager notificationManager;
+    private final PendingIntent openDashboard;
+
+    public AlertNotifier(Context context) {
+        this.context = context.getApplicationContext();
+        this.notificationManager = (NotificationManager) context.getSystemService(Context.NOTIFICATION_SERVICE);
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O && notificationManager != null) {
+            notificationManager.createNotificationChannel(new NotificationChannel(
+                    CHANNEL_ID, "Alerts", NotificationManager.IMPORTANCE_DEFAULT));
+        }
+        Intent intent = new Intent(context, MainActivity.class).setFlags(Intent.FLAG_ACTIVITY_SINGLE_TOP);
+        int flags = PendingIntent.FLAG_UPDATE_CURRENT;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
+            flags |= PendingIntent.FLAG_IMMUTABLE;
+        }
+        this.openDashboard = PendingIntent.getActivity(context, 0, intent, flags);
+    }
+
+    // Main thread. id identifies the alert; a later call with the same id replaces it.
+    public void notify(int id, String title, String text) {
+        if (notificationManager == null) return;
+        Notification.Builder builder = Build.VERSION.SDK_INT >= Build.VERSION_CODES.O
+                ? new Notification.Builder(context, CHANNEL_ID)
+                : new Notification.Builder(context);
+        builder.setSmallIcon(android.R.drawable.stat_sys_warning)
+                .setContentTitle(title)
+                .setContentText(text)
+                .setWhen(System.currentTimeMillis())
+                .setContentIntent(openDashboard)
+                .setAutoCancel(true);
+        notificationManager.notify(id, builder.build());
+    }
+}
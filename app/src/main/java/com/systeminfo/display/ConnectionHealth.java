@@ -0,0 +1,200 @@
+package com.systeminfo.display;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Circuit breaker for the connection to the server.
+//
+//   HEALTHY   samples are arriving
+//   DEGRADED  some recent attempts failed; the transport keeps trying
+//   OPEN      too many failures in a row; the transport is stopped and nothing is
+//             sent until a jittered, exponentially growing delay has passed
+//   HALF_OPEN one cheap probe request is in flight to see if the server is back
+//
+// A sleeping or rebooting PC therefore costs one small request per backoff period
+// instead of a blocked fetch every poll interval.
+public class ConnectionHealth {
+    private static final String TAG = "ConnectionHealth";
+
+    public static final int HEALTHY = 0;
+    public static final int DEGRADED = 1;
+    public static final int OPEN = 2;
+    public static final int HALF_OPEN = 3;
+
+    private static final int FAILURES_TO_OPEN = 5;
+    private static final long INITIAL_BACKOFF_MS = 1000;
+    private static final long MAX_BACKOFF_MS = 60000;
+    private static final long PROBE_TIMEOUT_MS = 2000;
+
+    public interface Listener {
+        // Called on the main thread. retryDelayMs is the wait before the next probe
+        // while OPEN, otherwise 0.
+        void onHealthChanged(int state, long retryDelayMs);
+    }
+
+    private final OkHttpClient probeClient;
+    private volatile String probeUrl;
+    private final Listener listener;
+    private final Handler handler;
+    private final Random random = new Random();
+
+    // Written on the main thread; read from any thread for the fast path
+    private volatile int state = HEALTHY;
+    private volatile int consecutiveFailures = 0;
+    private long backoffMs = INITIAL_BACKOFF_MS;
+    private Call probeCall;
+
+    private final Runnable probeRunnable = new Runnable() {
+        @Override
+        public void run() {
+            probe();
+        }
+    };
+
+    private final Runnable successRunnable = new Runnable() {
+        @Override
+        public void run() {
+            onSuccess();
+        }
+    };
+
+    public ConnectionHealth(OkHttpClient baseClient, String probeUrl, Listener listener) {
+        // Fail fast: a probe that takes seconds is as good as no answer
+        this.probeClient = baseClient.newBuilder()
+                .connectTimeout(PROBE_TIMEOUT_MS, TimeUnit.MILLISECONDS)
+                .readTimeout(PROBE_TIMEOUT_MS, TimeUnit.MILLISECONDS)
+                .build();
+        this.probeUrl = probeUrl;
+        this.listener = listener;
+        this.handler = new Handler(Looper.getMainLooper());
+    }
+
+    // Used from the next probe on, e.g. after the server moved to a new address
+    public void setProbeUrl(String probeUrl) {
+        this.probeUrl = probeUrl;
+    }
+
+    public int getState() {
+        return state;
+    }
+
+    public int getConsecutiveFailures() {
+        return consecutiveFailures;
+    }
+
+    // Transport stops sending while the breaker is open or probing
+    public boolean allowsRequests() {
+        int current = state;
+        return current == HEALTHY || current == DEGRADED;
+    }
+
+    // Any thread. Free while healthy, so it can be called for every sample.
+    public void recordSuccess() {
+        if (state == HEALTHY && consecutiveFailures == 0) return;
+        handler.post(successRunnable);
+    }
+
+    // Any thread
+    public void recordFailure(final String message) {
+        handler.post(new Runnable() {
+            @Override
+            public void run() {
+                onFailure(message);
+            }
+        });
+    }
+
+    // Cancels any pending probe and returns to HEALTHY without notifying
+    public void reset() {
+        handler.removeCallbacks(probeRunnable);
+        if (probeCall != null) {
+            probeCall.cancel();
+            probeCall = null;
+        }
+        state = HEALTHY;
+        consecutiveFailures = 0;
+        backoffMs = INITIAL_BACKOFF_MS;
+    }
+
+    private void onSuccess() {
+        consecutiveFailures = 0;
+        backoffMs = INITIAL_BACKOFF_MS;
+        if (state != HEALTHY) {
+            handler.removeCallbacks(probeRunnable);
+            setState(HEALTHY, 0);
+        }
+    }
+
+    private void onFailure(String message) {
+        // Failures of requests issued before the breaker opened change nothing
+        if (state == OPEN || state == HALF_OPEN) return;
+        consecutiveFailures++;
+        Log.d(TAG, "Failure " + consecutiveFailures + ": " + message);
+        if (consecutiveFailures >= FAILURES_TO_OPEN) {
+            open();
+        } else if (state != DEGRADED) {
+            setState(DEGRADED, 0);
+        }
+    }
+
+    private void open() {
+        // Equal jitter: wait between half and all of the backoff, so many clients
+        // recovering from the same outage don't probe in lockstep
+        long delay = backoffMs / 2 + (long) (random.nextDouble() * (backoffMs / 2));
+        backoffMs = Math.min(backoffMs * 2, MAX_BACKOFF_MS);
+        handler.removeCallbacks(probeRunnable);
+        handler.postDelayed(probeRunnable, delay);
+        setState(OPEN, delay);
+    }
+
+    private void probe() {
+        setState(HALF_OPEN, 0);
+        Request request = new Request.Builder()
+                .url(probeUrl)
+                .build();
+        final Call call = probeClient.newCall(request);
+        probeCall = call;
+        call.enqueue(new Callback() {
+            @Override
+            public void onFailure(Call c, IOException e) {
+                onProbeResult(call, false);
+            }
+
+            @Override
+            public void onResponse(Call c, Response response) {
+                boolean ok = response.isSuccessful();
+                response.close();
+                onProbeResult(call, ok);
+            }
+        });
+    }
+
+    private void onProbeResult(final Call call, final boolean ok) {
+        handler.post(new Runnable() {
+            @Override
+            public void run() {
+                if (call != probeCall || state != HALF_OPEN) return;
+                probeCall = null;
+                if (ok) {
+                    onSuccess();
+                } else {
+                    open();
+                }
+            }
+        });
+    }
+
+    private void setState(int newState, long retryDelayMs) {
+        state = newState;
+        listener.onHealthChanged(newState, retryDelayMs);
+    }
+}
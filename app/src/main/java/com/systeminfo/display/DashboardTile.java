@@ -0,0 +1,176 @@
+package com.systeminfo.display;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Rect;
+
+// One ring on the dashboard: a metric (with an inner memory ring for GPUs) or the
+// power circle. The tile renders itself into its own bitmap and only re-renders
+// when marked dirty, so unchanged tiles cost a single bitmap blit per frame.
+public class DashboardTile {
+    private final StatCircle usageCircle;
+    private final StatCircle memoryCircle; // GPU tiles only
+    private final boolean power;
+    private float powerCostValue = Float.NaN;
+
+    // Position within the dashboard, set by DashboardView's layout
+    final Rect bounds = new Rect();
+    private int size = 0;
+
+    private Bitmap cache;
+    private final Canvas cacheCanvas = new Canvas();
+    boolean dirty = true;
+    boolean animating = false;
+
+    private DashboardTile(StatCircle usageCircle, StatCircle memoryCircle, boolean power) {
+        this.usageCircle = usageCircle;
+        this.memoryCircle = memoryCircle;
+        this.power = power;
+    }
+
+    public static DashboardTile metric(String label) {
+        StatCircle usage = new StatCircle(8f);
+        usage.setLabel(label);
+        StatCircle memory = null;
+        if (usage.isGpu()) {
+            memory = new StatCircle(16f);
+            memory.setLabel(label);
+        }
+        return new DashboardTile(usage, memory, false);
+    }
+
+    public static DashboardTile power() {
+        // Larger padding keeps the power ring visually lighter than the metric rings
+        StatCircle circle = new StatCircle(24f);
+        circle.setLabel("PWR");
+        circle.setShowPercentage(false); // Watts and cost instead of a percentage
+        circle.setLabelPositionMultiplier(1.5f); // Move label down by 50%
+        return new DashboardTile(circle, null, true);
+    }
+
+    public boolean isPower() {
+        return power;
+    }
+
+    void setBounds(int left, int top, int size) {
+        bounds.set(left, top, left + size, top + size);
+        if (size != this.size) {
+            this.size = size;
+            usageCircle.setSize(size, size);
+            if (memoryCircle != null) memoryCircle.setSize(size, size);
+        }
+        dirty = true;
+    }
+
+    // Applies one metric sample; memoryPercent is NaN when there is no memory ring value.
+    // Returns true if the tile looks different afterwards.
+    public boolean applySnapshot(float usage, float memoryUsedGb, float memoryPercent, long timestampMs) {
+        boolean changed = usageCircle.setProgress(usage);
+        changed |= usageCircle.addUtilizationSample(usage, timestampMs);
+        if (!Float.isNaN(memoryPercent) && memoryCircle != null) {
+            changed |= usageCircle.setMemoryUsed(memoryUsedGb);
+            changed |= memoryCircle.setMemoryUsed(memoryUsedGb);
+            changed |= memoryCircle.setProgress(memoryPercent);
+            changed |= memoryCircle.addUtilizationSample(memoryPercent, timestampMs);
+            changed |= usageCircle.setMemoryProgress(memoryPercent);
+        }
+        return changed;
+    }
+
+    // Applies one power sample; cost may be NaN when unknown, keeping the last one
+    public boolean applyPower(float powerPercent, float watts, float costDollarsPerMonth, long timestampMs) {
+        boolean changed = usageCircle.setProgress(powerPercent);
+        changed |= usageCircle.addUtilizationSample(powerPercent, timestampMs);
+        if (!Float.isNaN(costDollarsPerMonth)) {
+            powerCostValue = costDollarsPerMonth;
+        }
+        changed |= usageCircle.setPowerValues(watts, powerCostValue);
+        return changed;
+    }
+
+    public void clearHistory() {
+        usageCircle.clearHistory();
+        if (memoryCircle != null) memoryCircle.clearHistory();
+    }
+
+    // Graph history built from stored samples; memory is null except for GPUs
+    public void loadHistory(GraphSeries usage, GraphSeries memory) {
+        if (usage != null) {
+            usageCircle.loadHistory(usage);
+        }
+        if (memory != null && memoryCircle != null) {
+            memoryCircle.loadHistory(memory);
+        }
+    }
+
+    // Replays a stored sample into the window statistics only. NaN means no value.
+    public void addHistorySample(float usage, float memoryPercent, long timestampMs) {
+        if (!Float.isNaN(usage)) {
+            usageCircle.addHistorySample(usage, timestampMs);
+        }
+        if (!Float.isNaN(memoryPercent) && memoryCircle != null) {
+            memoryCircle.addHistorySample(memoryPercent, timestampMs);
+        }
+    }
+
+    public void setHistoryRange(int range) {
+        usageCircle.setHistoryRange(range);
+        if (memoryCircle != null) memoryCircle.setHistoryRange(range);
+    }
+
+    public void setStatsWindow(long windowMs) {
+        usageCircle.setStatsWindow(windowMs);
+        if (memoryCircle != null) memoryCircle.setStatsWindow(windowMs);
+    }
+
+    public boolean setProgress(float progress) {
+        return usageCircle.setProgress(progress);
+    }
+
+    public boolean setAlert(boolean alert) {
+        boolean changed = usageCircle.setAlert(alert);
+        if (memoryCircle != null) changed |= memoryCircle.setAlert(alert);
+        return changed;
+    }
+
+    // Returns true while anything is still moving
+    public boolean stepAnimation(long frameTimeNanos) {
+        boolean moving = usageCircle.stepAnimation(frameTimeNanos);
+        if (memoryCircle != null) {
+            moving |= memoryCircle.stepAnimation(frameTimeNanos);
+        }
+        return moving;
+    }
+
+    // Blits the cached tile, re-rendering it first if it changed
+    void draw(Canvas canvas) {
+        if (size <= 0) return;
+        if (cache == null || cache.getWidth() != size) {
+            release();
+            cache = Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888);
+            cacheCanvas.setBitmap(cache);
+            dirty = true;
+        }
+        if (dirty) {
+            cache.eraseColor(0x00000000);
+            if (memoryCircle != null) {
+                memoryCircle.draw(cacheCanvas);
+            }
+            usageCircle.draw(cacheCanvas);
+            dirty = false;
+        }
+        canvas.drawBitmap(cache, bounds.left, bounds.top, null);
+    }
+
+    // Frees the cached bitmaps; they are rebuilt on the next draw
+    void release() {
+        if (cache != null) {
+            cacheCanvas.setBitmap(null);
+            cache.recycle();
+            cache = null;
+        }
+        usageCircle.releaseStaticLayer();
+        if (memoryCircle != null) memoryCircle.releaseStaticLayer();
+        dirty = true;
+    }
+}
@@ -0,0 +1,288 @@
+package com.systeminfo.display;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Rect;
+import android.util.AttributeSet;
+import android.view.View;
+
+// Draws every dashboard ring in a single view: metric tiles in the order they were
+// added, then the power tile, laid out in a centred grid of square cells. A change
+// to one tile invalidates only that tile's rectangle and re-renders only that
+// tile's bitmap, so dozens of rings cost no more than the ones that move.
+public class DashboardView extends View implements FrameAnimator.Target {
+    private static final int MAX_TILES = MetricRegistry.MAX_METRICS + 1;
+
+    private final DashboardTile[] tiles = new DashboardTile[MAX_TILES];
+    private int tileCount = 0;
+    private final DashboardTile powerTile = DashboardTile.power();
+    private final Rect clipBounds = new Rect();
+    private int historyRange = UtilizationGraph.RANGE_30_SECONDS;
+    private long statsWindowMs = StatCircle.DEFAULT_STATS_WINDOW_MS;
+    private final LatencyHistogram drawTime = Instrumentation.getInstance().drawHistogram("dashboard");
+    // decodedAtNanos of the newest applied sample not yet drawn, or 0
+    private long pendingSampleNanos = 0;
+    private boolean drawPending = false;
+    // While suspended changes are only recorded; nothing animates or redraws
+    private boolean suspended = false;
+
+    public DashboardView(Context context) {
+        super(context);
+        init();
+    }
+
+    public DashboardView(Context context, AttributeSet attrs) {
+        super(context, attrs);
+        init();
+    }
+
+    private void init() {
+        setBackgroundColor(0xFFFFFFFF); // White background
+    }
+
+    // Adds a metric tile ahead of the power tile and returns its index
+    public int addMetricTile(String label) {
+        int index = tileCount++;
+        tiles[index] = DashboardTile.metric(label);
+        tiles[index].setHistoryRange(historyRange);
+        tiles[index].setStatsWindow(statsWindowMs);
+        layoutTiles(getWidth(), getHeight());
+        invalidate();
+        return index;
+    }
+
+    // Applies one sample to a metric tile, invalidating only that tile if it changed
+    public void applySnapshot(int tile, float usage, float memoryUsedGb, float memoryPercent) {
+        applySnapshot(tile, usage, memoryUsedGb, memoryPercent, System.currentTimeMillis());
+    }
+
+    // timestampMs is the wall-clock time the sample is graphed at
+    public void applySnapshot(int tile, float usage, float memoryUsedGb, float memoryPercent, long timestampMs) {
+        if (tiles[tile].applySnapshot(usage, memoryUsedGb, memoryPercent, timestampMs)) {
+            tileChanged(tiles[tile]);
+        }
+    }
+
+    public void applyPower(float powerPercent, float watts, float costDollarsPerMonth) {
+        applyPower(powerPercent, watts, costDollarsPerMonth, System.currentTimeMillis());
+    }
+
+    public void applyPower(float powerPercent, float watts, float costDollarsPerMonth, long timestampMs) {
+        if (powerTile.applyPower(powerPercent, watts, costDollarsPerMonth, timestampMs)) {
+            tileChanged(powerTile);
+        }
+    }
+
+    // Stored history is loaded per tile: clearHistory once for every tile, then
+    // addHistorySample for the samples in the stats window, then loadHistory,
+    // which also settles the ticks. Call invalidate() once every tile has it.
+    public void clearHistory() {
+        for (int i = 0; i < tileCount; i++) {
+            tiles[i].clearHistory();
+            tiles[i].dirty = true;
+        }
+        powerTile.clearHistory();
+        powerTile.dirty = true;
+    }
+
+    public void loadHistory(int tile, GraphSeries usage, GraphSeries memory) {
+        tiles[tile].loadHistory(usage, memory);
+        tiles[tile].dirty = true;
+    }
+
+    public void loadPowerHistory(GraphSeries history) {
+        powerTile.loadHistory(history, null);
+        powerTile.dirty = true;
+    }
+
+    public void addHistorySample(int tile, float usage, float memoryPercent, long timestampMs) {
+        tiles[tile].addHistorySample(usage, memoryPercent, timestampMs);
+        tiles[tile].dirty = true;
+    }
+
+    public void addPowerHistorySample(float powerPercent, long timestampMs) {
+        if (!Float.isNaN(powerPercent)) {
+            powerTile.addHistorySample(powerPercent, Float.NaN, timestampMs);
+            powerTile.dirty = true;
+        }
+    }
+
+    // Switches every graph between the 30 s, 10 min and 24 h history
+    public void setHistoryRange(int range) {
+        historyRange = range;
+        for (int i = 0; i < tileCount; i++) {
+            tiles[i].setHistoryRange(range);
+            tiles[i].dirty = true;
+        }
+        powerTile.setHistoryRange(range);
+        powerTile.dirty = true;
+        invalidate();
+    }
+
+    // Window of the min, max, mean and p95 ticks on every ring; set it before
+    // replaying history, which is what fills the window at startup
+    public void setStatsWindow(long windowMs) {
+        statsWindowMs = windowMs;
+        for (int i = 0; i < tileCount; i++) {
+            tiles[i].setStatsWindow(windowMs);
+            tiles[i].dirty = true;
+        }
+        powerTile.setStatsWindow(windowMs);
+        powerTile.dirty = true;
+        invalidate();
+    }
+
+    // Marks a sample as applied so its age is recorded when the next draw finishes
+    public void sampleApplied(long decodedAtNanos) {
+        if (decodedAtNanos == 0) return;
+        if (drawPending) {
+            pendingSampleNanos = decodedAtNanos;
+        } else {
+            // Nothing changed on screen, so the sample is already on display
+            Instrumentation.getInstance().sampleAge.recordNanos(System.nanoTime() - decodedAtNanos);
+        }
+    }
+
+    // Empties one metric tile's ring, e.g. while its host is unreachable
+    public void resetTile(int tile) {
+        if (tiles[tile].setProgress(0)) tileChanged(tiles[tile]);
+    }
+
+    // Shows or clears the alert color on one metric tile
+    public void setAlert(int tile, boolean alert) {
+        if (tiles[tile].setAlert(alert)) tileRestyled(tiles[tile]);
+    }
+
+    public void setPowerAlert(boolean alert) {
+        if (powerTile.setAlert(alert)) tileRestyled(powerTile);
+    }
+
+    public void resetProgress() {
+        for (int i = 0; i < tileCount; i++) {
+            if (tiles[i].setProgress(0)) tileChanged(tiles[i]);
+        }
+        if (powerTile.setProgress(0)) tileChanged(powerTile);
+    }
+
+    // Stops and restarts animation and drawing, e.g. while the screen is off.
+    // Tiles changed in the meantime are brought up to date on resume.
+    public void setSuspended(boolean suspended) {
+        if (this.suspended == suspended) return;
+        this.suspended = suspended;
+        if (suspended) {
+            FrameAnimator.getInstance().remove(this);
+            return;
+        }
+        boolean animating = powerTile.animating;
+        for (int i = 0; i < tileCount; i++) {
+            animating |= tiles[i].animating;
+        }
+        if (animating) {
+            FrameAnimator.getInstance().start(this);
+        }
+        invalidate();
+    }
+
+    // Redraws a tile whose values didn't change, so nothing animates
+    private void tileRestyled(DashboardTile tile) {
+        tile.dirty = true;
+        if (!suspended) invalidate(tile.bounds);
+    }
+
+    private void tileChanged(DashboardTile tile) {
+        tile.dirty = true;
+        tile.animating = true;
+        drawPending = true;
+        if (suspended) return;
+        FrameAnimator.getInstance().start(this);
+        invalidate(tile.bounds);
+    }
+
+    @Override
+    public boolean onAnimationFrame(long frameTimeNanos) {
+        boolean moving = stepTile(powerTile, frameTimeNanos);
+        for (int i = 0; i < tileCount; i++) {
+            moving |= stepTile(tiles[i], frameTimeNanos);
+        }
+        return moving;
+    }
+
+    private boolean stepTile(DashboardTile tile, long frameTimeNanos) {
+        if (!tile.animating) return false;
+        // The frame that finishes an animation still has to be drawn
+        tile.animating = tile.stepAnimation(frameTimeNanos);
+        tile.dirty = true;
+        invalidate(tile.bounds);
+        return tile.animating;
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        layoutTiles(w, h);
+    }
+
+    // Picks the column count that gives the largest square cells
+    private void layoutTiles(int width, int height) {
+        int left = getPaddingLeft();
+        int top = getPaddingTop();
+        width -= left + getPaddingRight();
+        height -= top + getPaddingBottom();
+        if (width <= 0 || height <= 0) return;
+        int count = tileCount + 1;
+        int columns = 1;
+        int cellSize = 0;
+        for (int c = 1; c <= count; c++) {
+            int rows = (count + c - 1) / c;
+            int size = Math.min(width / c, height / rows);
+            if (size > cellSize) {
+                cellSize = size;
+                columns = c;
+            }
+        }
+        int rows = (count + columns - 1) / columns;
+        left += (width - columns * cellSize) / 2;
+        top += (height - rows * cellSize) / 2;
+        for (int i = 0; i < count; i++) {
+            DashboardTile tile = i < tileCount ? tiles[i] : powerTile;
+            tile.setBounds(left + (i % columns) * cellSize, top + (i / columns) * cellSize, cellSize);
+        }
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+        long start = System.nanoTime();
+        // Tiles outside the invalidated area are skipped entirely
+        if (canvas.getClipBounds(clipBounds)) {
+            for (int i = 0; i < tileCount; i++) {
+                drawTile(canvas, tiles[i]);
+            }
+            drawTile(canvas, powerTile);
+        }
+        long end = System.nanoTime();
+        drawTime.recordNanos(end - start);
+        drawPending = false;
+        if (pendingSampleNanos != 0) {
+            Instrumentation.getInstance().sampleAge.recordNanos(end - pendingSampleNanos);
+            pendingSampleNanos = 0;
+        }
+    }
+
+    private void drawTile(Canvas canvas, DashboardTile tile) {
+        if (Rect.intersects(clipBounds, tile.bounds)) {
+            tile.draw(canvas);
+        }
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        // Cached tile bitmaps are rebuilt lazily on the next draw
+        for (int i = 0; i < tileCount; i++) {
+            tiles[i].release();
+        }
+        powerTile.release();
+        FrameAnimator.getInstance().remove(this);
+    }
+}
@@ -0,0 +1,219 @@
+package com.systeminfo.display;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.SocketTimeoutException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// Finds the server on the LAN instead of relying on a hard-coded IP.
+//
+// resolve() races every endpoint that has answered before (the last one used
+// first) against a UDP broadcast: each known endpoint gets a /ping with a short
+// timeout while the broadcast asks every server on the subnet to announce
+// itself. Whichever answers first is used and remembered, so after a DHCP change
+// the app reconnects without a rebuild, and a normal start connects in a single
+// round trip instead of waiting out a connect timeout against a dead address.
+public class EndpointDiscovery {
+    private static final String TAG = "EndpointDiscovery";
+
+    // Must match server/discovery_responder.py
+    public static final int DISCOVERY_PORT = 8881;
+    private static final String DISCOVER_MESSAGE = "SYSINFO_DISCOVER";
+    private static final String REPLY_PREFIX = "SYSINFO_HERE ";
+    private static final Charset ASCII = Charset.forName("US-ASCII");
+
+    private static final long PROBE_TIMEOUT_MS = 500;
+    private static final int BROADCAST_WAIT_MS = 1500;
+    private static final int MAX_KNOWN_ENDPOINTS = 8;
+
+    private static final String PREFS_NAME = "endpoints";
+    private static final String KEY_LAST = "last";
+    private static final String KEY_KNOWN = "known";
+
+    public interface Listener {
+        // Called on the main thread with a base URL like "http://192.168.0.157:8880"
+        void onEndpointFound(String baseUrl);
+        // Called on the main thread when nothing answered in time
+        void onDiscoveryFailed();
+    }
+
+    private final OkHttpClient probeClient;
+    private final SharedPreferences prefs;
+    private final Handler handler;
+
+    // Main thread only. Bumped by every resolve() and cancel() so late answers
+    // from an earlier round are ignored.
+    private int generation = 0;
+    private boolean resolving = false;
+    private Listener listener;
+    private final List<Call> probeCalls = new ArrayList<Call>();
+
+    private final Runnable timeoutRunnable = new Runnable() {
+        @Override
+        public void run() {
+            if (!resolving) return;
+            finish();
+            Log.d(TAG, "No server answered");
+            listener.onDiscoveryFailed();
+        }
+    };
+
+    public EndpointDiscovery(Context context, OkHttpClient baseClient) {
+        this.probeClient = baseClient.newBuilder()
+                .connectTimeout(PROBE_TIMEOUT_MS, TimeUnit.MILLISECONDS)
+                .readTimeout(PROBE_TIMEOUT_MS, TimeUnit.MILLISECONDS)
+                .build();
+        this.prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        this.handler = new Handler(Looper.getMainLooper());
+    }
+
+    // Last endpoint that answered, or null on first launch
+    public String getLastEndpoint() {
+        return prefs.getString(KEY_LAST, null);
+    }
+
+    public boolean isResolving() {
+        return resolving;
+    }
+
+    // Main thread. fallback is probed along with the remembered endpoints.
+    public void resolve(String fallback, Listener listener) {
+        cancel();
+        this.listener = listener;
+        resolving = true;
+        final int round = generation;
+
+        Set<String> candidates = new LinkedHashSet<String>();
+        String last = getLastEndpoint();
+        if (last != null) candidates.add(last);
+        candidates.addAll(prefs.getStringSet(KEY_KNOWN, new HashSet<String>()));
+        if (fallback != null) candidates.add(fallback);
+        for (String candidate : candidates) {
+            probe(candidate, round);
+        }
+
+        Thread broadcast = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                broadcast(round);
+            }
+        }, "EndpointDiscovery");
+        broadcast.setDaemon(true);
+        broadcast.start();
+
+        handler.postDelayed(timeoutRunnable, BROADCAST_WAIT_MS);
+    }
+
+    // Main thread. Drops any round in progress without notifying.
+    public void cancel() {
+        generation++;
+        finish();
+    }
+
+    private void finish() {
+        resolving = false;
+        handler.removeCallbacks(timeoutRunnable);
+        for (Call call : probeCalls) {
+            call.cancel();
+        }
+        probeCalls.clear();
+    }
+
+    private void probe(final String baseUrl, final int round) {
+        Request request = new Request.Builder()
+                .url(baseUrl + "/ping")
+                .build();
+        Call call = probeClient.newCall(request);
+        probeCalls.add(call);
+        call.enqueue(new Callback() {
+            @Override
+            public void onFailure(Call c, IOException e) {
+                // The broadcast or another candidate may still answer
+            }
+
+            @Override
+            public void onResponse(Call c, Response response) {
+                boolean ok = response.isSuccessful();
+                response.close();
+                if (ok) {
+                    found(baseUrl, round);
+                }
+            }
+        });
+    }
+
+    // Runs on its own thread; every reply is a server announcing its HTTP port
+    private void broadcast(int round) {
+        DatagramSocket socket = null;
+        try {
+            socket = new DatagramSocket();
+            socket.setBroadcast(true);
+            socket.setSoTimeout(BROADCAST_WAIT_MS);
+            byte[] message = DISCOVER_MESSAGE.getBytes(ASCII);
+            socket.send(new DatagramPacket(message, message.length,
+                    InetAddress.getByName("255.255.255.255"), DISCOVERY_PORT));
+            byte[] buffer = new byte[64];
+            DatagramPacket reply = new DatagramPacket(buffer, buffer.length);
+            // The first valid reply settles the round; keep reading only past junk
+            while (true) {
+                socket.receive(reply);
+                String text = new String(reply.getData(), 0, reply.getLength(), ASCII);
+                if (!text.startsWith(REPLY_PREFIX)) continue;
+                int port = Integer.parseInt(text.substring(REPLY_PREFIX.length()).trim());
+                found("http://" + reply.getAddress().getHostAddress() + ":" + port, round);
+                return;
+            }
+        } catch (SocketTimeoutException e) {
+            // Nobody on this subnet answered
+        } catch (IOException | NumberFormatException e) {
+            Log.d(TAG, "Broadcast failed: " + e.getMessage());
+        } finally {
+            if (socket != null) socket.close();
+        }
+    }
+
+    // Any thread
+    private void found(final String baseUrl, final int round) {
+        handler.post(new Runnable() {
+            @Override
+            public void run() {
+                if (round != generation || !resolving) return;
+                finish();
+                remember(baseUrl);
+                Log.d(TAG, "Using " + baseUrl);
+                listener.onEndpointFound(baseUrl);
+            }
+        });
+    }
+
+    private void remember(String baseUrl) {
+        Set<String> known = new LinkedHashSet<String>();
+        known.add(baseUrl);
+        for (String endpoint : prefs.getStringSet(KEY_KNOWN, new HashSet<String>())) {
+            if (known.size() >= MAX_KNOWN_ENDPOINTS) break;
+            known.add(endpoint);
+        }
+        prefs.edit()
+                .putString(KEY_LAST, baseUrl)
+                .putStringSet(KEY_KNOWN, known)
+                .apply();
+    }
+}
@@ -0,0 +1,177 @@
+package com.systeminfo.display;
+
+import android.os.Handler;
+import android.os.Looper;
+import java.io.IOException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Runs a fetch on a fixed interval using a bounded pool of worker threads.
+// A tick is skipped while maxInFlight fetches are still outstanding, and a
+// result is dropped if a newer fetch has already been delivered, so slow
+// responses never pile up threads or arrive out of order.
+public class FetchScheduler<T> {
+    public interface Fetcher<T> {
+        // Runs on a worker thread. May return null when a response carried nothing new.
+        T fetch() throws IOException;
+    }
+
+    public interface Listener<T> {
+        // Called on the worker thread, in issue order. Result may be null.
+        void onFetchResult(T result);
+        // Called on the worker thread for a result superseded by a newer one
+        void onFetchDropped(T result);
+        // Called on the worker thread
+        void onFetchError(String message);
+    }
+
+    private final Fetcher<T> fetcher;
+    private final Listener<T> listener;
+    private final int maxInFlight;
+    private long intervalMs;
+    private final Handler handler;
+    private final ThreadPoolExecutor executor;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong issuedSequence = new AtomicLong();
+    private final Object deliveryLock = new Object();
+    private long deliveredSequence = 0;
+    private boolean running = false;
+
+    private final AtomicLong skippedCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final AtomicLong completedCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+
+    private final Runnable tickRunnable = new Runnable() {
+        @Override
+        public void run() {
+            if (!running) return;
+            tick();
+            handler.postDelayed(this, intervalMs);
+        }
+    };
+
+    public FetchScheduler(Fetcher<T> fetcher, Listener<T> listener, int maxInFlight, long intervalMs) {
+        this.fetcher = fetcher;
+        this.listener = listener;
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.intervalMs = intervalMs;
+        this.handler = new Handler(Looper.getMainLooper());
+        this.executor = new ThreadPoolExecutor(
+                this.maxInFlight, this.maxInFlight,
+                30, TimeUnit.SECONDS,
+                new SynchronousQueue<Runnable>(),
+                new ThreadFactory() {
+                    private final AtomicInteger count = new AtomicInteger();
+
+                    @Override
+                    public Thread newThread(Runnable r) {
+                        Thread thread = new Thread(r, "FetchScheduler-" + count.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    public void start() {
+        if (running) return;
+        running = true;
+        handler.post(tickRunnable);
+    }
+
+    public void stop() {
+        running = false;
+        handler.removeCallbacks(tickRunnable);
+    }
+
+    public void shutdown() {
+        stop();
+        executor.shutdownNow();
+    }
+
+    // Main thread; takes effect from the next tick
+    public void setIntervalMs(long intervalMs) {
+        this.intervalMs = intervalMs;
+    }
+
+    public long getIntervalMs() {
+        return intervalMs;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void tick() {
+        // Reserve an in-flight slot, or skip this tick if none are free
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= maxInFlight) {
+                skippedCount.incrementAndGet();
+                return;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+
+        final long sequence = issuedSequence.incrementAndGet();
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        T result = fetcher.fetch();
+                        deliver(sequence, result);
+                    } catch (IOException e) {
+                        failedCount.incrementAndGet();
+                        listener.onFetchError("Connection error: " + e.getMessage());
+                    } finally {
+                        inFlight.decrementAndGet();
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.decrementAndGet();
+            skippedCount.incrementAndGet();
+        }
+    }
+
+    private void deliver(long sequence, T result) {
+        synchronized (deliveryLock) {
+            if (sequence <= deliveredSequence) {
+                // A newer response has already been shown
+                droppedCount.incrementAndGet();
+                listener.onFetchDropped(result);
+                return;
+            }
+            deliveredSequence = sequence;
+            completedCount.incrementAndGet();
+            listener.onFetchResult(result);
+        }
+    }
+
+    public int getInFlightCount() {
+        return inFlight.get();
+    }
+
+    public long getSkippedCount() {
+        return skippedCount.get();
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    public long getCompletedCount() {
+        return completedCount.get();
+    }
+
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+}
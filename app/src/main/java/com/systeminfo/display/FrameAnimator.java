@@ -0,0 +1,86 @@
+package com.systeminfo.display;
+
+import android.view.Choreographer;
+import java.util.ArrayList;
+
+// Drives view animations from Choreographer frame callbacks, capped to a frame
+// budget. Targets report whether they are still moving; once every target has
+// settled no more frames are scheduled, so an idle dashboard costs nothing.
+// Main thread only.
+public class FrameAnimator implements Choreographer.FrameCallback {
+    private static final int DEFAULT_MAX_FPS = 30;
+    private static final long NANOS_PER_MS = 1000000L;
+    private static FrameAnimator instance;
+
+    public interface Target {
+        // Advance to frameTimeNanos and invalidate; return false once settled
+        boolean onAnimationFrame(long frameTimeNanos);
+    }
+
+    private final Choreographer choreographer;
+    private final ArrayList<Target> targets = new ArrayList<Target>();
+    private long minFrameIntervalNanos;
+    private long lastFrameNanos = 0;
+    private boolean scheduled = false;
+
+    public static FrameAnimator getInstance() {
+        if (instance == null) {
+            instance = new FrameAnimator();
+        }
+        return instance;
+    }
+
+    private FrameAnimator() {
+        choreographer = Choreographer.getInstance();
+        setMaxFramesPerSecond(DEFAULT_MAX_FPS);
+    }
+
+    public void setMaxFramesPerSecond(int fps) {
+        minFrameIntervalNanos = 1000000000L / Math.max(1, fps);
+    }
+
+    public void start(Target target) {
+        if (!targets.contains(target)) {
+            targets.add(target);
+        }
+        schedule(0);
+    }
+
+    public void remove(Target target) {
+        targets.remove(target);
+        if (targets.isEmpty() && scheduled) {
+            choreographer.removeFrameCallback(this);
+            scheduled = false;
+        }
+    }
+
+    private void schedule(long delayMs) {
+        if (scheduled) return;
+        scheduled = true;
+        if (delayMs > 0) {
+            choreographer.postFrameCallbackDelayed(this, delayMs);
+        } else {
+            choreographer.postFrameCallback(this);
+        }
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        scheduled = false;
+        long sinceLast = frameTimeNanos - lastFrameNanos;
+        if (sinceLast < minFrameIntervalNanos) {
+            // Over budget for this vsync; wait out the rest of the frame interval
+            schedule(Math.max(1, (minFrameIntervalNanos - sinceLast) / NANOS_PER_MS));
+            return;
+        }
+        lastFrameNanos = frameTimeNanos;
+        for (int i = targets.size() - 1; i >= 0; i--) {
+            if (!targets.get(i).onAnimationFrame(frameTimeNanos)) {
+                targets.remove(i);
+            }
+        }
+        if (!targets.isEmpty()) {
+            schedule(0);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.systeminfo.display;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.graphics.Typeface;
+import android.util.SparseArray;
+
+// Prebuilt bitmap of the characters used by StatCircle's center values, one atlas
+// per text size. Drawing a value is a few bitmap blits instead of text shaping, and
+// the value itself is written into a char[] so no Strings are formatted per frame.
+public class GlyphAtlas {
+    static final String GLYPHS = "0123456789.%W$GB• -";
+    static final int VALUE_COLOR = 0xFF111111;
+    private static final Typeface VALUE_TYPEFACE = Typeface.create("sans-serif", Typeface.BOLD);
+    private static final int PAD = 1;
+    private static final int[] GLYPH_INDEX = new int[128];
+    private static final int BULLET_INDEX = GLYPHS.indexOf('•');
+    private static final SparseArray<GlyphAtlas> cache = new SparseArray<GlyphAtlas>();
+
+    static {
+        for (int i = 0; i < GLYPH_INDEX.length; i++) {
+            GLYPH_INDEX[i] = -1;
+        }
+        for (int i = 0; i < GLYPHS.length(); i++) {
+            char c = GLYPHS.charAt(i);
+            if (c < 128) GLYPH_INDEX[c] = i;
+        }
+    }
+
+    private final Bitmap bitmap;
+    private final Rect[] sources = new Rect[GLYPHS.length()];
+    private final float[] advances = new float[GLYPHS.length()];
+    private final float ascent;
+    private final Paint fallbackPaint;
+    private final RectF destination = new RectF();
+
+    // Call on the main thread; atlases are built once per text size and kept
+    public static GlyphAtlas obtain(float textSize) {
+        int key = Math.max(1, Math.round(textSize));
+        GlyphAtlas atlas = cache.get(key);
+        if (atlas == null) {
+            atlas = new GlyphAtlas(key);
+            cache.put(key, atlas);
+        }
+        return atlas;
+    }
+
+    private GlyphAtlas(float textSize) {
+        fallbackPaint = new Paint();
+        fallbackPaint.setColor(VALUE_COLOR);
+        fallbackPaint.setAntiAlias(true);
+        fallbackPaint.setTextAlign(Paint.Align.LEFT);
+        fallbackPaint.setTypeface(VALUE_TYPEFACE);
+        fallbackPaint.setTextSize(textSize);
+
+        ascent = fallbackPaint.ascent();
+        int cellHeight = (int) Math.ceil(fallbackPaint.descent() - ascent) + 2 * PAD;
+        int width = 0;
+        for (int i = 0; i < GLYPHS.length(); i++) {
+            advances[i] = fallbackPaint.measureText(GLYPHS, i, i + 1);
+            width += (int) Math.ceil(advances[i]) + 2 * PAD;
+        }
+
+        bitmap = Bitmap.createBitmap(Math.max(1, width), Math.max(1, cellHeight), Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(bitmap);
+        int x = 0;
+        for (int i = 0; i < GLYPHS.length(); i++) {
+            int cellWidth = (int) Math.ceil(advances[i]) + 2 * PAD;
+            canvas.drawText(GLYPHS, i, i + 1, x + PAD, PAD - ascent, fallbackPaint);
+            sources[i] = new Rect(x, 0, x + cellWidth, cellHeight);
+            x += cellWidth;
+        }
+    }
+
+    private static int indexOf(char c) {
+        if (c < 128) return GLYPH_INDEX[c];
+        return c == '•' ? BULLET_INDEX : -1;
+    }
+
+    public float measure(char[] text, int start, int length) {
+        float width = 0f;
+        for (int i = start; i < start + length; i++) {
+            int glyph = indexOf(text[i]);
+            width += glyph >= 0 ? advances[glyph] : fallbackPaint.measureText(text, i, 1);
+        }
+        return width;
+    }
+
+    public void drawCentered(Canvas canvas, char[] text, int start, int length, float centerX, float baselineY) {
+        float x = centerX - measure(text, start, length) / 2f;
+        float top = baselineY + ascent - PAD;
+        for (int i = start; i < start + length; i++) {
+            int glyph = indexOf(text[i]);
+            if (glyph >= 0) {
+                Rect source = sources[glyph];
+                destination.set(x - PAD, top, x - PAD + source.width(), top + source.height());
+                canvas.drawBitmap(bitmap, source, destination, null);
+                x += advances[glyph];
+            } else {
+                // Characters outside the atlas are still drawn, just not from the bitmap
+                canvas.drawText(text, i, 1, x, baselineY, fallbackPaint);
+                x += fallbackPaint.measureText(text, i, 1);
+            }
+        }
+    }
+}
@@ -7,60 +7,172 @@ import android.view.View;
 import android.view.WindowManager;
 import android.view.Window;
 import android.widget.TextView;
-import android.widget.Toast;
 import android.app.Activity;
 import android.os.PowerManager;
 import android.content.Context;
-import android.hardware.Sensor;
-import android.hardware.SensorEvent;
-import android.hardware.SensorEventListener;
-import android.hardware.SensorManager;
 import android.util.Log;
-import com.google.gson.Gson;
-import com.google.gson.JsonObject;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.Response;
+import okio.ByteString;
+import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Locale;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import android.content.pm.ActivityInfo;
 import android.graphics.Color;
-import org.json.JSONArray;
-import org.json.JSONException;
-import org.json.JSONObject;
 
-public class MainActivity extends Activity implements SensorEventListener {
+public class MainActivity extends Activity {
     private static final String TAG = "MainActivity";
-    private static final float FLAT_THRESHOLD = 1.5f; // Threshold for detecting flat position
 
-    private CircularProgressView cpuProgress;
-    private CircularProgressView memoryProgress;
-    private CircularProgressView gpu1Progress;
-    private CircularProgressView gpu2Progress;
-    private PowerProgressView powerProgress;
+    private DashboardView dashboard;
+    // One tile per registered metric, indexed by metric id
+    private final MetricRegistry metricRegistry = new MetricRegistry(new MetricRegistry.Listener() {
+        @Override
+        public void onMetricAdded(int id) {
+            addMetricTile(id);
+        }
+    });
+    private final int[] metricTiles = new int[MetricRegistry.MAX_METRICS];
+    // Scratch sample used to register metrics found in stored history
+    private final SystemSnapshot historySnapshot = new SystemSnapshot();
+    // True until the stored history is on the dashboard
+    private boolean historyLoading = false;
+    // Live samples drawn while the history was still loading. Loading replaces
+    // every graph, so they are drawn again on top of it; past this many, the
+    // oldest live samples are only in the history once it is stored.
+    private static final int MAX_EARLY_SAMPLES = GraphSeries.HISTORY_SIZE;
+    private final SystemSnapshot[] earlySamples = new SystemSnapshot[MAX_EARLY_SAMPLES];
+    private final long[] earlySampleTimes = new long[MAX_EARLY_SAMPLES];
+    private int earlySampleCount = 0;
     private OkHttpClient client;
     private Handler handler;
+    // True while the activity is resumed and PowerPosture lets the pipeline run
     private boolean isConnected = false;
-    private static final String SERVER_URL = "http://192.168.0.157:8880/system-info"; // Updated with your PC's IP
+    // Probed along with every server found before and any that answer the LAN broadcast
+    private static final String DEFAULT_ENDPOINT = "http://192.168.0.157:8880";
+    private static final String SYSTEM_INFO_PATH = "/system-info";
+    private static final String STREAM_PATH = "/system-info/stream";
+    private static final String PROBE_PATH = "/ping";
+    private static final boolean USE_STREAMING = true; // Falls back to polling when the stream is unavailable
+    private static final boolean USE_DELTA_ENCODING = true; // Send only changed fields; takes precedence over binary frames
+    private static final int STREAM_FALLBACK_THRESHOLD = 3;
+    private static final long POLL_INTERVAL_MS = 500;
+    private static final long MAX_POLL_INTERVAL_MS = 2000; // While values are flat or the link is degraded
+    private static final int MAX_IN_FLIGHT_FETCHES = 1;
+    private static final int MAX_ANIMATION_FPS = 30;
+    private MetricsStreamClient streamClient;
+    private FetchScheduler<SystemSnapshot> fetchScheduler;
+    private final SnapshotDecoder snapshotDecoder = new SnapshotDecoder();
+    private final BinarySnapshotDecoder binaryDecoder = new BinarySnapshotDecoder();
+    private volatile boolean useBinaryFrames = !USE_DELTA_ENCODING; // Cleared if the server sends a frame we can't read
+    private final DeltaStateModel deltaModel = new DeltaStateModel(snapshotDecoder);
+    private final SystemSnapshot.Pool snapshotPool = new SystemSnapshot.Pool(MAX_IN_FLIGHT_FETCHES + 3);
     private View decorView;
-    private int consecutiveErrorCount = 0;
-    private static final int ERROR_THRESHOLD = 10;
+    private ConnectionHealth connectionHealth;
+    private final AdaptivePollInterval pollInterval = new AdaptivePollInterval(POLL_INTERVAL_MS, MAX_POLL_INTERVAL_MS);
+    private float lastPowerPercent = Float.NaN;
+    private TextView connectionStatus;
+    private int historyRange = UtilizationGraph.RANGE_30_SECONDS;
+    // Keeps the last 24 hours of samples on disk so graphs survive restarts
+    private SampleStore sampleStore;
+    private static final long HISTORY_LOAD_MS = 24L * 60 * 60 * 1000;
+    // Window of the min/max, mean and p95 ticks drawn across every ring
+    private static final long STATS_WINDOW_MS = 5 * 60 * 1000;
+    // Checked against every sample of every host. A firing alert turns its tile's
+    // ring red and posts a notification; metrics a host doesn't report never fire.
+    private static final AlertRule[] ALERT_RULES = {
+            AlertRule.above("GPU 1 memory nearly full", "gpu1.memoryPercent", 95f, 10000),
+            AlertRule.above("GPU 2 memory nearly full", "gpu2.memoryPercent", 95f, 10000),
+            AlertRule.above("Power limit reached", "totalPower/totalPowerLimit", 0.95f, 30000),
+            AlertRule.deviation("Unusual CPU load", "cpuUsage", 0.02f, 4f, 15f, 5000),
+            AlertRule.rateOfChange("Memory climbing fast", "memoryUsage", 2f, 5000),
+    };
+    private static final int NO_TILE = -1;
+    private static final int POWER_TILE = -2;
+    // One engine per host; the single-host dashboard uses host 0
+    private AlertEngine[] alertEngines;
+    private AlertNotifier alertNotifier;
+    // Tile each firing alert has colored, by host and rule
+    private int[][] alertTiles;
+    // Firing alerts per dashboard tile, so a tile only clears once all of them have
+    private final int[] tileAlertCounts = new int[MetricRegistry.MAX_METRICS];
+    private int powerAlertCount = 0;
+    private EndpointDiscovery endpointDiscovery;
+    private final Instrumentation instrumentation = Instrumentation.getInstance();
+    // Per-sample diagnostics go to the trace ring instead of logcat
+    private static final TraceLog TRACE = TraceLog.getInstance();
+    private static final int TRACE_SAMPLE = TRACE.define(TraceLog.DEBUG, "sample", "seq", "queue_us");
+    private static final int TRACE_SERVER_ERROR = TRACE.define(TraceLog.INFO, "server_error");
+    private static final int TRACE_POWER = TRACE.define(TraceLog.DEBUG, "power", "watts", "limit", "percent");
+    // Long-press the dashboard to toggle the latency overlay
+    private static final boolean SHOW_HUD = false;
+    private static final long HUD_REFRESH_MS = 1000;
+    private TextView hud;
+    private boolean hudVisible = SHOW_HUD;
+    private final StringBuilder hudText = new StringBuilder();
+    private final Runnable hudRunnable = new Runnable() {
+        @Override
+        public void run() {
+            if (!hudVisible) return;
+            hudText.setLength(0);
+            instrumentation.appendSummary(hudText);
+            hud.setText(hudText);
+            handler.postDelayed(this, HUD_REFRESH_MS);
+        }
+    };
+    // Base URL of the server in use; null until discovery settles
+    private String endpoint;
+    private volatile String serverUrl = DEFAULT_ENDPOINT + SYSTEM_INFO_PATH;
+    // Set both to watch several PCs at once in a compact CPU + GPU overview;
+    // empty keeps the single-host dashboard above
+    private static final String[] MULTI_HOST_NAMES = {};
+    private static final String[] MULTI_HOST_URLS = {}; // e.g. "http://192.168.0.157:8880"
+    private MultiHostMonitor multiHostMonitor;
+    private final int[] hostCpuTiles = new int[MultiHostMonitor.MAX_HOSTS];
+    private final int[] hostGpuTiles = new int[MultiHostMonitor.MAX_HOSTS];
+    // Latest power per host, summed into the power tile; NaN while unknown
+    private final float[] hostPower = new float[MultiHostMonitor.MAX_HOSTS];
+    private final float[] hostPowerLimit = new float[MultiHostMonitor.MAX_HOSTS];
+    // Set RECORD_FILE to capture every payload into the app's external files
+    // directory; set REPLAY_FILE to play such a capture instead of using the
+    // network, at REPLAY_SPEED times real time or PayloadReplay.SPEED_MAX
+    private static final String RECORD_FILE = null; // e.g. "capture.sirp"
+    private static final String REPLAY_FILE = null;
+    private static final float REPLAY_SPEED = 1f;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private volatile PayloadRecorder payloadRecorder;
+    private PayloadReplay payloadReplay;
+    private final Semaphore replayAppliedSignal = new Semaphore(0);
+    private final Runnable replayApplied = new Runnable() {
+        @Override
+        public void run() {
+            replayAppliedSignal.release();
+        }
+    };
     
     private PowerManager.WakeLock wakeLock;
-    private SensorManager sensorManager;
-    private Sensor accelerometer;
-    private boolean isFlat = false;
+    // Runs the pipeline only while the screen is on and the phone is docked
+    private PowerPosture powerPosture;
     private boolean wakeLockAcquired = false;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
-        
-        // Initialize sensor manager and accelerometer
-        sensorManager = (SensorManager) getSystemService(Context.SENSOR_SERVICE);
-        if (sensorManager != null) {
-            accelerometer = sensorManager.getDefaultSensor(Sensor.TYPE_ACCELEROMETER);
-        }
+        TRACE.setLevel(BuildConfig.DEBUG ? TraceLog.DEBUG : TraceLog.ERROR);
         
         // Initialize WakeLock
         PowerManager powerManager = (PowerManager) getSystemService(Context.POWER_SERVICE);
@@ -80,18 +192,42 @@ public class MainActivity extends Activity implements SensorEventListener {
         decorView = getWindow().getDecorView();
         decorView.setSystemUiVisibility(View.SYSTEM_UI_FLAG_FULLSCREEN);
 
-        // Initialize views
-        cpuProgress = findViewById(R.id.cpuProgress);
-        memoryProgress = findViewById(R.id.memoryProgress);
-        gpu1Progress = findViewById(R.id.gpu1Progress);
-        gpu2Progress = findViewById(R.id.gpu2Progress);
-        powerProgress = findViewById(R.id.powerProgress);
+        // Arcs ease between samples; cap the frame rate so the dashboard never redraws at 60 fps
+        FrameAnimator.getInstance().setMaxFramesPerSecond(MAX_ANIMATION_FPS);
 
-        // Set labels
-        cpuProgress.setLabel("CPU");
-        memoryProgress.setLabel("Mem");
-        gpu1Progress.setLabel("GPU 1");
-        gpu2Progress.setLabel("GPU 2");
+        // One view draws every ring; metric tiles are added as the server reports metrics
+        dashboard = findViewById(R.id.dashboard);
+        dashboard.setStatsWindow(STATS_WINDOW_MS);
+
+        // Tapping the dashboard switches every graph to the next history range
+        dashboard.setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View v) {
+                cycleHistoryRange();
+            }
+        });
+        dashboard.setOnLongClickListener(new View.OnLongClickListener() {
+            @Override
+            public boolean onLongClick(View v) {
+                setHudVisible(!hudVisible);
+                return true;
+            }
+        });
+        hud = findViewById(R.id.hud);
+        // Diagnostics files are only written when asked for, never on pause
+        hud.setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View v) {
+                dumpLatency();
+            }
+        });
+        hud.setOnLongClickListener(new View.OnLongClickListener() {
+            @Override
+            public boolean onLongClick(View v) {
+                dumpTrace();
+                return true;
+            }
+        });
 
         // Initialize OkHttpClient
         client = new OkHttpClient.Builder()
@@ -99,8 +235,155 @@ public class MainActivity extends Activity implements SensorEventListener {
                 .readTimeout(5, TimeUnit.SECONDS)
                 .build();
 
+        if (MULTI_HOST_URLS.length > 0) {
+            createMultiHostMonitor();
+        } else if (REPLAY_FILE == null) {
+            // Replayed samples are not kept in the stored history
+            loadHistory();
+        }
+
+        createAlertEngines();
+
+        connectionStatus = findViewById(R.id.connectionStatus);
+        connectionHealth = new ConnectionHealth(client, DEFAULT_ENDPOINT + PROBE_PATH, new ConnectionHealth.Listener() {
+            @Override
+            public void onHealthChanged(int state, long retryDelayMs) {
+                MainActivity.this.onHealthChanged(state, retryDelayMs);
+            }
+        });
+
         handler = new Handler(Looper.getMainLooper());
-        startPolling();
+        fetchScheduler = new FetchScheduler<SystemSnapshot>(new FetchScheduler.Fetcher<SystemSnapshot>() {
+            @Override
+            public SystemSnapshot fetch() throws IOException {
+                return fetchSystemInfo();
+            }
+        }, new FetchScheduler.Listener<SystemSnapshot>() {
+            @Override
+            public void onFetchResult(SystemSnapshot snapshot) {
+                connectionHealth.recordSuccess();
+                if (snapshot != null) {
+                    updateUI(snapshot);
+                }
+            }
+
+            @Override
+            public void onFetchDropped(SystemSnapshot snapshot) {
+                snapshotPool.release(snapshot);
+            }
+
+            @Override
+            public void onFetchError(String message) {
+                handleConnectionError(message);
+            }
+        }, MAX_IN_FLIGHT_FETCHES, POLL_INTERVAL_MS);
+        streamClient = new MetricsStreamClient(client, streamUrl(DEFAULT_ENDPOINT), new MetricsStreamClient.Listener() {
+            @Override
+            public void onStreamMessage(String jsonData) {
+                recordPayload(USE_DELTA_ENCODING ? PayloadRecorder.TYPE_DELTA : PayloadRecorder.TYPE_JSON, jsonData);
+                SystemSnapshot snapshot = snapshotPool.acquire();
+                long parseStart = System.nanoTime();
+                try {
+                    if (USE_DELTA_ENCODING) {
+                        int result = deltaModel.merge(new StringReader(jsonData), snapshot);
+                        if (result != DeltaStateModel.APPLIED) {
+                            snapshotPool.release(snapshot);
+                            if (result == DeltaStateModel.NEEDS_RESYNC) {
+                                Log.d(TAG, "Gap in stream sequence - requesting full sample");
+                                streamClient.send("resync");
+                            } else if (result == DeltaStateModel.AWAITING_FULL) {
+                                // The full sample was missed; without one every delta is dropped
+                                Log.d(TAG, "Delta before any full sample - requesting one");
+                                streamClient.send("resync");
+                            }
+                            return;
+                        }
+                    } else {
+                        snapshotDecoder.decode(new StringReader(jsonData), snapshot);
+                    }
+                } catch (IOException e) {
+                    snapshotPool.release(snapshot);
+                    Log.e(TAG, "Error parsing streamed data", e);
+                    handleConnectionError(e.getMessage());
+                    return;
+                }
+                sampleDecoded(snapshot, parseStart);
+                connectionHealth.recordSuccess();
+                updateUI(snapshot);
+            }
+
+            @Override
+            public void onStreamFrame(ByteString frame) {
+                if (payloadRecorder != null) {
+                    byte[] bytes = frame.toByteArray();
+                    recordPayload(PayloadRecorder.TYPE_FRAME, bytes, bytes.length);
+                }
+                SystemSnapshot snapshot = snapshotPool.acquire();
+                long parseStart = System.nanoTime();
+                try {
+                    binaryDecoder.decode(frame.asByteBuffer(), snapshot);
+                } catch (IOException e) {
+                    snapshotPool.release(snapshot);
+                    Log.e(TAG, "Error decoding streamed frame - reconnecting with JSON", e);
+                    disableBinaryFrames();
+                    return;
+                }
+                sampleDecoded(snapshot, parseStart);
+                connectionHealth.recordSuccess();
+                updateUI(snapshot);
+            }
+
+            @Override
+            public void onStreamOpen() {
+                Log.d(TAG, "Stream open - stopping polling fallback");
+                connectionHealth.recordSuccess();
+                stopPollingFallback();
+            }
+
+            @Override
+            public void onStreamFailure(int consecutiveFailures, String message) {
+                // Keep data flowing over plain HTTP while the stream reconnects
+                if (consecutiveFailures >= STREAM_FALLBACK_THRESHOLD && !fetchScheduler.isRunning()) {
+                    Log.d(TAG, "Stream unavailable - falling back to polling");
+                    startPolling();
+                }
+                handleConnectionError(message);
+            }
+        });
+        if (useBinaryFrames) {
+            streamClient.setAcceptHeader(BinarySnapshotDecoder.ACCEPT_HEADER);
+        }
+        endpointDiscovery = new EndpointDiscovery(this, client);
+        if (REPLAY_FILE != null) {
+            openReplay();
+        } else {
+            if (RECORD_FILE != null) {
+                openRecorder();
+            }
+            if (multiHostMonitor == null) {
+                discoverEndpoint();
+            }
+        }
+        powerPosture = new PowerPosture(this, new PowerPosture.Listener() {
+            @Override
+            public void onActiveChanged(boolean active) {
+                setPipelineActive(active);
+            }
+
+            @Override
+            public void onFlatChanged(boolean flat) {
+                if (flat) {
+                    // Phone is now flat, acquire wake lock
+                    acquireWakeLock();
+                    Log.d(TAG, "Phone is flat - keeping screen on");
+                } else {
+                    // Phone is no longer flat, release wake lock
+                    releaseWakeLock();
+                    Log.d(TAG, "Phone is not flat - allowing screen to time out");
+                }
+            }
+        });
+        startTransport();
     }
 
     @Override
@@ -108,60 +391,49 @@ public class MainActivity extends Activity implements SensorEventListener {
         super.onResume();
         // Re-apply in case system cleared it
         decorView.setSystemUiVisibility(View.SYSTEM_UI_FLAG_FULLSCREEN);
-        // Register sensor listener
-        if (accelerometer != null) {
-            sensorManager.registerListener(this, accelerometer, SensorManager.SENSOR_DELAY_NORMAL);
-        }
-        // Ensure we're still connected
-        if (!isConnected) {
-            startPolling();
-            isConnected = true;
-        }
+        // Starts the transport straight away unless the screen is off or the phone undocked
+        powerPosture.resume();
+        setHudVisible(hudVisible);
     }
 
     @Override
     protected void onPause() {
         super.onPause();
-        // Unregister sensor listener
-        sensorManager.unregisterListener(this);
+        powerPosture.pause();
         // Release wake lock if held
         releaseWakeLock();
+        flushRecorder();
     }
 
-    @Override
-    public void onSensorChanged(SensorEvent event) {
-        if (event.sensor.getType() == Sensor.TYPE_ACCELEROMETER) {
-            float x = event.values[0];
-            float y = event.values[1];
-            float z = event.values[2];
-            
-            // Check if phone is laid flat (z-axis points up with gravity ~9.8 m/s²)
-            // and x and y values are close to 0
-            boolean nowFlat = (Math.abs(z) > 9.0f) && 
-                            (Math.abs(x) < FLAT_THRESHOLD) && 
-                            (Math.abs(y) < FLAT_THRESHOLD);
-            
-            // Only take action if the state changes
-            if (nowFlat != isFlat) {
-                isFlat = nowFlat;
-                if (isFlat) {
-                    // Phone is now flat, acquire wake lock
-                    acquireWakeLock();
-                    Log.d(TAG, "Phone is flat - keeping screen on");
-                } else {
-                    // Phone is no longer flat, release wake lock
-                    releaseWakeLock();
-                    Log.d(TAG, "Phone is not flat - allowing screen to time out");
-                }
-            }
+    // Main thread. Suspending stops every request and redraw; resuming starts the
+    // transport again, whose first request or stream message is a full sample, so
+    // the dashboard catches up at once instead of waiting for the next interval.
+    private void setPipelineActive(boolean active) {
+        isConnected = active;
+        if (active) {
+            dashboard.setSuspended(false);
+            startTransport();
+            return;
+        }
+        if (multiHostMonitor != null) {
+            multiHostMonitor.stop();
+        }
+        if (payloadReplay != null) {
+            stopReplay();
         }
+        streamClient.stop();
+        stopPollingFallback();
+        // A breaker left open would keep probing in the background
+        connectionHealth.reset();
+        updateConnectionStatus(ConnectionHealth.HEALTHY, 0);
+        // Deltas against a sample from before the pause would only be rejected;
+        // a replay carries on from the payload it stopped at, so it keeps its state
+        if (payloadReplay == null) {
+            deltaModel.reset();
+        }
+        dashboard.setSuspended(true);
     }
 
-    @Override
-    public void onAccuracyChanged(Sensor sensor, int accuracy) {
-        // Not used in this implementation
-    }
-    
     private void acquireWakeLock() {
         if (!wakeLockAcquired && wakeLock != null) {
             wakeLock.acquire();
@@ -176,166 +448,788 @@ public class MainActivity extends Activity implements SensorEventListener {
         }
     }
 
+    private void startTransport() {
+        if (payloadReplay != null) {
+            if (isConnected) payloadReplay.start();
+            return;
+        }
+        if (multiHostMonitor != null) {
+            if (isConnected) multiHostMonitor.start();
+            return;
+        }
+        if (!isConnected || endpoint == null || !connectionHealth.allowsRequests()) return;
+        if (USE_STREAMING) {
+            startStream();
+        } else {
+            startPolling();
+        }
+    }
+
+    // The model is reset before connecting rather than in onStreamOpen, which
+    // is posted to the main thread: the server's opening full sample is merged
+    // on the reader thread and could otherwise be applied and then wiped
+    private void startStream() {
+        if (streamClient.isRunning()) return;
+        deltaModel.reset();
+        streamClient.start();
+    }
+
     private void startPolling() {
+        if (isConnected && connectionHealth.allowsRequests()) {
+            fetchScheduler.start();
+        }
+    }
+
+    private void stopPollingFallback() {
+        if (fetchScheduler.isRunning()) {
+            fetchScheduler.stop();
+            Log.d(TAG, "Polling stopped - completed: " + fetchScheduler.getCompletedCount()
+                    + ", skipped: " + fetchScheduler.getSkippedCount()
+                    + ", dropped: " + fetchScheduler.getDroppedCount()
+                    + ", failed: " + fetchScheduler.getFailedCount());
+        }
+    }
+
+    private void stopPolling() {
+        if (multiHostMonitor != null) {
+            multiHostMonitor.stop();
+        }
+        if (payloadReplay != null) {
+            stopReplay();
+        }
+        endpointDiscovery.cancel();
+        streamClient.stop();
+        stopPollingFallback();
+        connectionHealth.reset();
+        updateConnectionStatus(ConnectionHealth.HEALTHY, 0);
+        handler.removeCallbacksAndMessages(null);
+        resetInfoTexts();
+    }
+
+    // Runs on a FetchScheduler worker thread. The body is decoded here, straight
+    // from the response stream, so the main thread only has to apply numbers.
+    private SystemSnapshot fetchSystemInfo() throws IOException {
+        Request.Builder builder = new Request.Builder()
+                .url(USE_DELTA_ENCODING ? serverUrl + "?since=" + deltaModel.getLastSequence() : serverUrl);
+        if (useBinaryFrames) {
+            builder.header("Accept", BinarySnapshotDecoder.ACCEPT_HEADER);
+        }
+        Request request = builder.build();
+
+        long sentAt = System.nanoTime();
+        Response response = client.newCall(request).execute();
+        long parseStart = System.nanoTime();
+        instrumentation.rtt.recordNanos(parseStart - sentAt);
+        try {
+            if (!response.isSuccessful()) {
+                throw new IOException("Failed to fetch system info");
+            }
+            boolean isFrame = BinarySnapshotDecoder.isFrameMediaType(response.header("Content-Type"));
+            // While recording the body is buffered once, then decoded from the copy
+            byte[] body = null;
+            if (payloadRecorder != null) {
+                body = response.body().bytes();
+                recordPayload(isFrame ? PayloadRecorder.TYPE_FRAME
+                        : USE_DELTA_ENCODING ? PayloadRecorder.TYPE_DELTA : PayloadRecorder.TYPE_JSON,
+                        body, body.length);
+            }
+            SystemSnapshot snapshot = snapshotPool.acquire();
+            try {
+                // Servers that don't know the binary frame just answer with JSON
+                if (isFrame) {
+                    try {
+                        binaryDecoder.decode(body != null ? new ByteArrayInputStream(body)
+                                : response.body().byteStream(), snapshot);
+                    } catch (IOException e) {
+                        disableBinaryFrames();
+                        throw e;
+                    }
+                } else {
+                    Reader text = body != null
+                            ? new InputStreamReader(new ByteArrayInputStream(body), UTF_8)
+                            : response.body().charStream();
+                    if (USE_DELTA_ENCODING) {
+                        // A gap resets the model, so the next request asks for a full sample
+                        if (deltaModel.merge(text, snapshot) != DeltaStateModel.APPLIED) {
+                            snapshotPool.release(snapshot);
+                            return null;
+                        }
+                    } else {
+                        snapshotDecoder.decode(text, snapshot);
+                    }
+                }
+            } catch (IOException e) {
+                snapshotPool.release(snapshot);
+                throw e;
+            }
+            sampleDecoded(snapshot, parseStart);
+            return snapshot;
+        } finally {
+            response.close();
+        }
+    }
+
+    // Races the remembered servers against a LAN broadcast; the transport starts
+    // as soon as the first one answers
+    private void discoverEndpoint() {
+        endpointDiscovery.resolve(DEFAULT_ENDPOINT, new EndpointDiscovery.Listener() {
+            @Override
+            public void onEndpointFound(String baseUrl) {
+                setEndpoint(baseUrl);
+                startTransport();
+            }
+
+            @Override
+            public void onDiscoveryFailed() {
+                // Keep trying the most likely address; the circuit breaker paces the retries
+                String last = endpointDiscovery.getLastEndpoint();
+                setEndpoint(last != null ? last : DEFAULT_ENDPOINT);
+                startTransport();
+            }
+        });
+    }
+
+    // Called while the breaker is open: the server may have moved to a new address
+    private void rediscoverEndpoint() {
+        if (endpointDiscovery.isResolving()) return;
+        endpointDiscovery.resolve(null, new EndpointDiscovery.Listener() {
+            @Override
+            public void onEndpointFound(String baseUrl) {
+                if (baseUrl.equals(endpoint)) return; // The breaker's own probe will find it
+                Log.d(TAG, "Server moved to " + baseUrl);
+                setEndpoint(baseUrl);
+                connectionHealth.reset();
+                updateConnectionStatus(ConnectionHealth.HEALTHY, 0);
+                deltaModel.reset();
+                startTransport();
+            }
+
+            @Override
+            public void onDiscoveryFailed() {
+            }
+        });
+    }
+
+    private void setEndpoint(String baseUrl) {
+        endpoint = baseUrl;
+        serverUrl = baseUrl + SYSTEM_INFO_PATH;
+        streamClient.setUrl(streamUrl(baseUrl));
+        connectionHealth.setProbeUrl(baseUrl + PROBE_PATH);
+    }
+
+    private static String streamUrl(String baseUrl) {
+        // http://host:port -> ws://host:port
+        String url = "ws" + baseUrl.substring("http".length()) + STREAM_PATH;
+        return USE_DELTA_ENCODING ? url + "?delta=1" : url;
+    }
+
+    // Any thread. Falls back to JSON for the rest of this session.
+    private void disableBinaryFrames() {
+        if (!useBinaryFrames) return;
+        useBinaryFrames = false;
         handler.post(new Runnable() {
             @Override
             public void run() {
-                if (isConnected) {
-                    fetchSystemInfo();
-                    handler.postDelayed(this, 500); // Poll every 500ms
+                streamClient.setAcceptHeader(null);
+                if (isConnected && USE_STREAMING) {
+                    streamClient.stop();
+                    startStream();
                 }
             }
         });
     }
 
-    private void stopPolling() {
-        handler.removeCallbacksAndMessages(null);
-        resetInfoTexts();
+    // Any thread, right after a payload has been decoded
+    private void sampleDecoded(SystemSnapshot snapshot, long parseStartNanos) {
+        snapshot.decodedAtNanos = System.nanoTime();
+        snapshot.sampledAtMs = snapshot.decodedAtNanos / 1000000;
+        instrumentation.parse.recordNanos(snapshot.decodedAtNanos - parseStartNanos);
     }
 
-    private void fetchSystemInfo() {
-        new Thread(new Runnable() {
+    private void updateUI(final SystemSnapshot snapshot) {
+        if (sampleStore != null) {
+            sampleStore.append(snapshot);
+        }
+        handler.post(new Runnable() {
             @Override
             public void run() {
-                try {
-                    Request request = new Request.Builder()
-                            .url(SERVER_URL)
-                            .build();
-
-                    Response response = client.newCall(request).execute();
-                    if (response.isSuccessful()) {
-                        String jsonData = response.body().string();
-                        updateUI(jsonData);
-                        consecutiveErrorCount = 0; // Reset error count on successful connection
-                    } else {
-                        handleConnectionError("Failed to fetch system info");
+                long queueNanos = System.nanoTime() - snapshot.decodedAtNanos;
+                instrumentation.queueDelay.recordNanos(queueNanos);
+                TRACE.record(TRACE_SAMPLE, snapshot.sequence, queueNanos / 1000);
+                applySnapshot(snapshot);
+                dashboard.sampleApplied(snapshot.decodedAtNanos);
+                snapshotPool.release(snapshot);
+            }
+        });
+    }
+
+    private void applySnapshot(SystemSnapshot data) {
+        if (data.hasError) {
+            TRACE.record(TRACE_SERVER_ERROR);
+        }
+
+        // Each tile diffs against what it last showed and only changed tiles are redrawn
+        metricRegistry.update(data);
+        alertEngines[0].evaluate(data, data.sampledAtMs);
+        if (connectionHealth.getState() == ConnectionHealth.HEALTHY) {
+            // Poll quickly while the totals move, slowly while they sit still
+            float change = Math.max(metricRegistry.getAggregateMaxChange(), powerChange(data));
+            fetchScheduler.setIntervalMs(pollInterval.onSample(change));
+        }
+        if (data.hasPower) {
+            TRACE.recordFloats(TRACE_POWER, data.totalPower, data.totalPowerLimit, data.getPowerPercent());
+        }
+        long now = System.currentTimeMillis();
+        if (historyLoading) {
+            keepEarlySample(data, now);
+        }
+        applyToDashboard(data, now);
+    }
+
+    // Tiles for the metrics the registry last updated from data
+    private void applyToDashboard(SystemSnapshot data, long timestampMs) {
+        for (int id = 0; id < metricRegistry.getCount(); id++) {
+            if (metricRegistry.isPresent(id)) {
+                dashboard.applySnapshot(metricTiles[id], metricRegistry.getValue(id),
+                        metricRegistry.getMemoryUsed(id), metricRegistry.getMemoryPercent(id), timestampMs);
+            }
+        }
+
+        if (data.hasPower) {
+            // Calculate percentage for the border (0-100 range)
+            dashboard.applyPower(data.getPowerPercent(), data.totalPower,
+                    data.hasPowerCost ? data.totalPowerCostInDollarsPerMonth : Float.NaN, timestampMs);
+        }
+    }
+
+    private void keepEarlySample(SystemSnapshot data, long timestampMs) {
+        if (earlySampleCount == MAX_EARLY_SAMPLES) return;
+        if (earlySamples[earlySampleCount] == null) {
+            earlySamples[earlySampleCount] = new SystemSnapshot();
+        }
+        earlySamples[earlySampleCount].copyFrom(data);
+        earlySampleTimes[earlySampleCount] = timestampMs;
+        earlySampleCount++;
+    }
+
+    // Percentage points the power draw moved since the previous sample
+    private float powerChange(SystemSnapshot data) {
+        if (!data.hasPower) return 0f;
+        float percent = data.getPowerPercent();
+        float change = Float.isNaN(lastPowerPercent) ? 0f : Math.abs(percent - lastPowerPercent);
+        lastPowerPercent = percent;
+        return change;
+    }
+
+    private void createAlertEngines() {
+        int hosts = Math.max(1, MULTI_HOST_URLS.length);
+        alertNotifier = new AlertNotifier(this);
+        alertEngines = new AlertEngine[hosts];
+        alertTiles = new int[hosts][ALERT_RULES.length];
+        for (int host = 0; host < hosts; host++) {
+            final int h = host;
+            alertEngines[host] = new AlertEngine(ALERT_RULES, new AlertEngine.Listener() {
+                @Override
+                public void onAlertChanged(int rule, boolean firing, float value) {
+                    MainActivity.this.onAlertChanged(h, rule, firing, value);
+                }
+            });
+        }
+    }
+
+    private void onAlertChanged(int host, int rule, boolean firing, float value) {
+        if (!firing) {
+            showAlert(alertTiles[host][rule], -1);
+            alertTiles[host][rule] = NO_TILE;
+            return;
+        }
+        AlertRule alert = ALERT_RULES[rule];
+        int tile = alertTile(host, alert.getMetric());
+        alertTiles[host][rule] = tile;
+        showAlert(tile, 1);
+        String title = multiHostMonitor != null ? alert.getName() + " on " + MULTI_HOST_NAMES[host] : alert.getName();
+        String text = String.format(Locale.US, "%s = %.2f", alert.getMetric().getKey(), value);
+        Log.d(TAG, "Alert: " + title + " - " + text);
+        alertNotifier.notify(host * ALERT_RULES.length + rule, title, text);
+    }
+
+    private void showAlert(int tile, int change) {
+        if (tile == POWER_TILE) {
+            powerAlertCount += change;
+            dashboard.setPowerAlert(powerAlertCount > 0);
+        } else if (tile != NO_TILE) {
+            tileAlertCounts[tile] += change;
+            dashboard.setAlert(tile, tileAlertCounts[tile] > 0);
+        }
+    }
+
+    // The tile showing a metric: its own tile on the single-host dashboard, the
+    // host's CPU or GPU tile in the overview, the power tile for power metrics
+    private int alertTile(int host, SnapshotMetric metric) {
+        int target = metric.getTarget();
+        if (target == SnapshotMetric.TARGET_POWER) return POWER_TILE;
+        if (multiHostMonitor != null) {
+            return target == SnapshotMetric.TARGET_GPU ? hostGpuTiles[host] : hostCpuTiles[host];
+        }
+        int id;
+        switch (target) {
+            case SnapshotMetric.TARGET_CPU:
+                id = metricRegistry.getCpuId();
+                break;
+            case SnapshotMetric.TARGET_MEMORY:
+                id = metricRegistry.getMemoryId();
+                break;
+            case SnapshotMetric.TARGET_GPU:
+                id = metricRegistry.getGpuId(metric.getTargetIndex());
+                break;
+            default:
+                id = metricRegistry.getCoreId(metric.getTargetIndex());
+                break;
+        }
+        return id < 0 ? NO_TILE : metricTiles[id];
+    }
+
+    // Tiles go in registration order, ahead of the power circle
+    private void addMetricTile(int id) {
+        metricTiles[id] = dashboard.addMetricTile(metricRegistry.getLabel(id));
+    }
+
+    private void createMultiHostMonitor() {
+        for (int host = 0; host < MULTI_HOST_URLS.length; host++) {
+            hostCpuTiles[host] = dashboard.addMetricTile(MULTI_HOST_NAMES[host] + " CPU");
+            hostGpuTiles[host] = dashboard.addMetricTile(MULTI_HOST_NAMES[host] + " GPU");
+            hostPower[host] = Float.NaN;
+        }
+        multiHostMonitor = new MultiHostMonitor(client, MULTI_HOST_URLS, POLL_INTERVAL_MS,
+                new MultiHostMonitor.Listener() {
+            @Override
+            public void onHostSample(int host, SystemSnapshot snapshot) {
+                applyHostSnapshot(host, snapshot);
+            }
+
+            @Override
+            public void onHostHealthChanged(int host, int state) {
+                if (state == ConnectionHealth.OPEN) {
+                    // An unreachable PC shows empty rings instead of stale ones
+                    Log.d(TAG, MULTI_HOST_NAMES[host] + " unreachable");
+                    dashboard.resetTile(hostCpuTiles[host]);
+                    dashboard.resetTile(hostGpuTiles[host]);
+                    hostPower[host] = Float.NaN;
+                    applyTotalPower();
+                }
+            }
+        });
+    }
+
+    // Overview tiles: total CPU and the average of the host's GPUs
+    private void applyHostSnapshot(int host, SystemSnapshot data) {
+        if (data.hasCpuUsage) {
+            dashboard.applySnapshot(hostCpuTiles[host], data.cpuUsage, Float.NaN, Float.NaN);
+        }
+        float gpuSum = 0f;
+        int gpus = 0;
+        for (int i = 0; i < data.gpuCount; i++) {
+            if (data.hasGpuUsage[i]) {
+                gpuSum += data.gpuUsage[i];
+                gpus++;
+            }
+        }
+        if (gpus > 0) {
+            dashboard.applySnapshot(hostGpuTiles[host], gpuSum / gpus, Float.NaN, Float.NaN);
+        }
+        if (data.hasPower) {
+            hostPower[host] = data.totalPower;
+            hostPowerLimit[host] = data.totalPowerLimit;
+            applyTotalPower();
+        }
+        alertEngines[host].evaluate(data, data.sampledAtMs);
+        dashboard.sampleApplied(data.decodedAtNanos);
+    }
+
+    private void applyTotalPower() {
+        float watts = 0f;
+        float limit = 0f;
+        for (int host = 0; host < MULTI_HOST_URLS.length; host++) {
+            if (!Float.isNaN(hostPower[host])) {
+                watts += hostPower[host];
+                limit += hostPowerLimit[host];
+            }
+        }
+        dashboard.applyPower(limit > 0 ? watts / limit * 100f : 0f, watts, Float.NaN);
+    }
+
+    // Stored samples are read and reduced to graph tiers on the store thread.
+    // The transport starts at the same time, so the first live sample isn't held
+    // back by a full store; samples drawn before the history arrives are kept and
+    // drawn again on top of it.
+    private void loadHistory() {
+        sampleStore = new SampleStore(new File(getFilesDir(), "samples"));
+        historyLoading = true;
+        final StoredHistory history = new StoredHistory(STATS_WINDOW_MS);
+        sampleStore.open(System.currentTimeMillis() - HISTORY_LOAD_MS, history, new Runnable() {
+            @Override
+            public void run() {
+                runOnUiThread(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (isDestroyed()) return;
+                        applyHistory(history);
+                        historyLoading = false;
                     }
-                } catch (IOException e) {
-                    handleConnectionError("Connection error: " + e.getMessage());
+                });
+            }
+        });
+    }
+
+    // Main thread. Copies each channel's tiers into its tile in one step, then
+    // draws the live samples that arrived during the load on top.
+    private void applyHistory(StoredHistory history) {
+        // Stored channels go through the registry too, so tiles exist before live data
+        SystemSnapshot sample = historySnapshot;
+        sample.reset();
+        sample.cpuUsage = history.getLatest(SampleStore.CHANNEL_CPU);
+        sample.hasCpuUsage = !Float.isNaN(sample.cpuUsage);
+        sample.memoryUsage = history.getLatest(SampleStore.CHANNEL_MEMORY);
+        sample.hasMemoryUsage = !Float.isNaN(sample.memoryUsage);
+        for (int gpu = 0; gpu < SystemSnapshot.MAX_GPUS; gpu++) {
+            sample.gpuUsage[gpu] = history.getLatest(SampleStore.gpuUsageChannel(gpu));
+            sample.hasGpuUsage[gpu] = !Float.isNaN(sample.gpuUsage[gpu]);
+            sample.gpuMemoryPercent[gpu] = history.getLatest(SampleStore.gpuMemoryChannel(gpu));
+            sample.hasGpuMemory[gpu] = !Float.isNaN(sample.gpuMemoryPercent[gpu]);
+            if (sample.hasGpuUsage[gpu]) sample.gpuCount = gpu + 1;
+        }
+        metricRegistry.update(sample);
+        dashboard.clearHistory();
+        for (int id = 0; id < metricRegistry.getCount(); id++) {
+            int usageChannel;
+            int memoryChannel = -1;
+            switch (metricRegistry.getKind(id)) {
+                case MetricRegistry.KIND_CPU:
+                    usageChannel = SampleStore.CHANNEL_CPU;
+                    break;
+                case MetricRegistry.KIND_MEMORY:
+                    usageChannel = SampleStore.CHANNEL_MEMORY;
+                    break;
+                case MetricRegistry.KIND_GPU:
+                    usageChannel = SampleStore.gpuUsageChannel(metricRegistry.getIndex(id));
+                    memoryChannel = SampleStore.gpuMemoryChannel(metricRegistry.getIndex(id));
+                    break;
+                default:
+                    continue; // Cores aren't stored
+            }
+            int tile = metricTiles[id];
+            for (int i = 0; i < history.getRecentCount(usageChannel); i++) {
+                dashboard.addHistorySample(tile, history.getRecentValue(usageChannel, i), Float.NaN,
+                        history.getRecentTimestamp(usageChannel, i));
+            }
+            GraphSeries memory = null;
+            if (memoryChannel >= 0 && history.hasChannel(memoryChannel)) {
+                memory = history.getSeries(memoryChannel);
+                for (int i = 0; i < history.getRecentCount(memoryChannel); i++) {
+                    dashboard.addHistorySample(tile, Float.NaN, history.getRecentValue(memoryChannel, i),
+                            history.getRecentTimestamp(memoryChannel, i));
                 }
             }
-        }).start();
+            dashboard.loadHistory(tile, history.getSeries(usageChannel), memory);
+        }
+        if (history.hasChannel(SampleStore.CHANNEL_POWER)) {
+            for (int i = 0; i < history.getRecentCount(SampleStore.CHANNEL_POWER); i++) {
+                dashboard.addPowerHistorySample(history.getRecentValue(SampleStore.CHANNEL_POWER, i),
+                        history.getRecentTimestamp(SampleStore.CHANNEL_POWER, i));
+            }
+            dashboard.loadPowerHistory(history.getSeries(SampleStore.CHANNEL_POWER));
+        }
+        // Leaves the registry holding the newest live sample again
+        for (int i = 0; i < earlySampleCount; i++) {
+            metricRegistry.update(earlySamples[i]);
+            applyToDashboard(earlySamples[i], earlySampleTimes[i]);
+            earlySamples[i] = null;
+        }
+        earlySampleCount = 0;
+        dashboard.invalidate();
     }
 
-    private void updateUI(final String jsonData) {
-        handler.post(new Runnable() {
+    private void setHudVisible(boolean visible) {
+        hudVisible = visible;
+        handler.removeCallbacks(hudRunnable);
+        hud.setVisibility(visible ? View.VISIBLE : View.GONE);
+        if (visible) {
+            handler.post(hudRunnable);
+        }
+    }
+
+    private interface DiagnosticsDump {
+        void writeTo(Writer out) throws IOException;
+    }
+
+    // Main thread. The histograms are formatted here so the file is a single
+    // snapshot; only the write to storage happens in the background.
+    private void dumpLatency() {
+        final StringWriter text = new StringWriter();
+        try {
+            instrumentation.dump(text);
+        } catch (IOException e) {
+            Log.e(TAG, "Error formatting latency histograms", e);
+            return;
+        }
+        writeDiagnostics("latency.tsv", new DiagnosticsDump() {
+            @Override
+            public void writeTo(Writer out) throws IOException {
+                out.write(text.toString());
+            }
+        });
+    }
+
+    // Slots are read with the same sequence checks that make recording safe from
+    // any thread, so the whole ring is walked and formatted in the background
+    private void dumpTrace() {
+        writeDiagnostics("trace.tsv", new DiagnosticsDump() {
+            @Override
+            public void writeTo(Writer out) throws IOException {
+                TRACE.dump(out);
+            }
+        });
+    }
+
+    // Writes a diagnostics file where `adb pull` can reach it, on a thread of its own
+    private void writeDiagnostics(String name, final DiagnosticsDump dump) {
+        final File file = new File(diagnosticsDir(), name);
+        new Thread(new Runnable() {
             @Override
             public void run() {
+                Writer out = null;
                 try {
-                    JSONObject data = new JSONObject(jsonData);
-                    Log.d(TAG, "Received data: " + jsonData);
-                    
-                    // Update CPU
-                    if (data.has("cpuUsage")) {
-                        float cpuUsage = (float) data.getDouble("cpuUsage");
-                        cpuProgress.setProgress(cpuUsage);
-                        cpuProgress.addUtilizationSample(cpuUsage);
-                    }
-                    
-                    // Update Memory
-                    if (data.has("memoryUsage")) {
-                        float memoryUsage = (float) data.getDouble("memoryUsage");
-                        memoryProgress.setProgress(memoryUsage);
-                        memoryProgress.addUtilizationSample(memoryUsage);
-                    }
-                    
-                    // Update GPUs
-                    if (data.has("gpu1")) {
-                        JSONObject gpu1 = data.getJSONObject("gpu1");
-                        if (gpu1.has("usage")) {
-                            float gpu1Usage = (float) gpu1.getDouble("usage");
-                            gpu1Progress.setProgress(gpu1Usage);
-                            gpu1Progress.addUtilizationSample(gpu1Usage);
-                            
-                            // Update GPU 1 memory
-                            if (gpu1.has("memoryUsed") && gpu1.has("memoryTotal") && gpu1.has("memoryPercent")) {
-                                String memoryUsed = gpu1.getString("memoryUsed");
-                                float memoryPercent = (float) gpu1.getDouble("memoryPercent");
-                                gpu1Progress.setMemoryUsed(memoryUsed);
-                                gpu1Progress.setMemoryProgress(memoryPercent);
-                            }
-                        }
-                    }
-                    
-                    if (data.has("gpu2")) {
-                        JSONObject gpu2 = data.getJSONObject("gpu2");
-                        if (gpu2.has("usage")) {
-                            float gpu2Usage = (float) gpu2.getDouble("usage");
-                            gpu2Progress.setProgress(gpu2Usage);
-                            gpu2Progress.addUtilizationSample(gpu2Usage);
-                            
-                            // Update GPU 2 memory
-                            if (gpu2.has("memoryUsed") && gpu2.has("memoryTotal") && gpu2.has("memoryPercent")) {
-                                String memoryUsed = gpu2.getString("memoryUsed");
-                                float memoryPercent = (float) gpu2.getDouble("memoryPercent");
-                                gpu2Progress.setMemoryUsed(memoryUsed);
-                                gpu2Progress.setMemoryProgress(memoryPercent);
-                            }
-                        }
-                    }
-                    
-                    // Update Power
-                    if (data.has("totalPower") && data.has("totalPowerLimit")) {
-                        float totalPower = Float.parseFloat(data.getString("totalPower"));
-                        float totalPowerLimit = Float.parseFloat(data.getString("totalPowerLimit"));
-                        
-                        // Calculate percentage for the border (0-100 range)
-                        float powerPercentage = (totalPower / totalPowerLimit) * 100f;
-                        Log.d(TAG, String.format("Power: %.1fW / %.1fW = %.2f%%", 
-                            totalPower, totalPowerLimit, powerPercentage));
-                        powerProgress.setPowerProgress(powerPercentage); // Pass as 0-100 range
-                        
-                        // Display just the power value in watts
-                        powerProgress.setPowerUsed(String.format("%.0fW", totalPower));
-
-                        // Update power cost if available
-                        if (data.has("totalPowerCostInDollarsPerMonth")) {
-                            String cost = data.getString("totalPowerCostInDollarsPerMonth");
-                            powerProgress.setPowerCost(String.format("$%s", cost));
+                    out = new BufferedWriter(new FileWriter(file));
+                    dump.writeTo(out);
+                    out.close();
+                    out = null;
+                    Log.d(TAG, "Wrote " + file);
+                } catch (IOException e) {
+                    Log.e(TAG, "Error writing " + file, e);
+                } finally {
+                    if (out != null) {
+                        try {
+                            out.close();
+                        } catch (IOException ignored) {
                         }
                     }
-                    
-                } catch (JSONException e) {
-                    Log.e(TAG, "Error parsing JSON data", e);
-                    e.printStackTrace();
-                    showError("Error parsing data: " + e.getMessage());
-                } catch (NumberFormatException e) {
-                    Log.e(TAG, "Error parsing power values", e);
-                    e.printStackTrace();
-                    showError("Error parsing power values: " + e.getMessage());
                 }
             }
-        });
+        }, "Diagnostics").start();
     }
 
-    private void resetInfoTexts() {
-        cpuProgress.setProgress(0);
-        memoryProgress.setProgress(0);
-        gpu1Progress.setProgress(0);
-        gpu2Progress.setProgress(0);
-        powerProgress.setPowerProgress(0);
+    private File diagnosticsDir() {
+        File dir = getExternalFilesDir(null);
+        return dir != null ? dir : getFilesDir();
     }
 
-    private void showError(final String message) {
-        handler.post(new Runnable() {
+    private void openRecorder() {
+        File file = new File(diagnosticsDir(), RECORD_FILE);
+        try {
+            payloadRecorder = new PayloadRecorder(new FileOutputStream(file));
+            Log.d(TAG, "Recording payloads to " + file);
+        } catch (IOException e) {
+            Log.e(TAG, "Error creating " + file, e);
+        }
+    }
+
+    // Any thread
+    private void recordPayload(int type, String payload) {
+        PayloadRecorder recorder = payloadRecorder;
+        if (recorder == null) return;
+        try {
+            recorder.recordText(type, payload);
+        } catch (IOException e) {
+            stopRecording(e);
+        }
+    }
+
+    // Any thread
+    private void recordPayload(int type, byte[] payload, int length) {
+        PayloadRecorder recorder = payloadRecorder;
+        if (recorder == null) return;
+        try {
+            recorder.record(type, payload, 0, length);
+        } catch (IOException e) {
+            stopRecording(e);
+        }
+    }
+
+    // So `adb pull` sees the capture so far
+    private void flushRecorder() {
+        PayloadRecorder recorder = payloadRecorder;
+        if (recorder == null) return;
+        try {
+            recorder.flush();
+        } catch (IOException e) {
+            stopRecording(e);
+        }
+    }
+
+    private void stopRecording(IOException e) {
+        Log.e(TAG, "Error recording payloads - recording stopped", e);
+        closeRecorder();
+    }
+
+    private void closeRecorder() {
+        PayloadRecorder recorder = payloadRecorder;
+        payloadRecorder = null;
+        if (recorder == null) return;
+        try {
+            recorder.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    // Decodes each payload as the type it was recorded as, whatever this build's
+    // transport settings are, then hands it to the UI like a live sample
+    private void openReplay() {
+        File file = new File(diagnosticsDir(), REPLAY_FILE);
+        PayloadReader reader;
+        try {
+            reader = new PayloadReader(new FileInputStream(file));
+        } catch (IOException e) {
+            Log.e(TAG, "Error opening " + file, e);
+            return;
+        }
+        payloadReplay = new PayloadReplay(reader, REPLAY_SPEED, new PayloadReplay.Listener() {
             @Override
-            public void run() {
-                Toast.makeText(MainActivity.this, message, Toast.LENGTH_SHORT).show();
+            public void onPayload(int type, byte[] data, int length, long timeMicros) {
+                SystemSnapshot snapshot = snapshotPool.acquire();
+                long parseStart = System.nanoTime();
+                try {
+                    if (!decodeReplayed(type, data, length, snapshot)) {
+                        snapshotPool.release(snapshot);
+                        return;
+                    }
+                } catch (IOException e) {
+                    snapshotPool.release(snapshot);
+                    Log.e(TAG, "Error decoding replayed payload", e);
+                    return;
+                }
+                sampleDecoded(snapshot, parseStart);
+                // Alerts hold and rate on the recorded timeline, whatever the replay speed
+                snapshot.sampledAtMs = timeMicros / 1000;
+                updateUI(snapshot);
+                awaitReplayApplied();
+            }
+
+            @Override
+            public void onReplayFinished(long payloads, long elapsedNanos) {
+                Log.d(TAG, "Replayed " + payloads + " payloads in " + elapsedNanos / 1000000 + " ms");
+            }
+
+            @Override
+            public void onReplayError(IOException e) {
+                Log.e(TAG, "Error reading " + REPLAY_FILE, e);
             }
         });
+        Log.d(TAG, "Replaying " + file + " at " + (REPLAY_SPEED == PayloadReplay.SPEED_MAX
+                ? "maximum speed" : REPLAY_SPEED + "x"));
     }
 
+    // Replay thread. Returns false for a delta that doesn't apply, e.g. one
+    // recorded before the capture's first full sample.
+    private boolean decodeReplayed(int type, byte[] data, int length, SystemSnapshot snapshot) throws IOException {
+        switch (type) {
+            case PayloadRecorder.TYPE_FRAME:
+                binaryDecoder.decode(ByteBuffer.wrap(data, 0, length), snapshot);
+                return true;
+            case PayloadRecorder.TYPE_DELTA:
+                return deltaModel.merge(new InputStreamReader(
+                        new ByteArrayInputStream(data, 0, length), UTF_8), snapshot) == DeltaStateModel.APPLIED;
+            case PayloadRecorder.TYPE_JSON:
+                snapshotDecoder.decode(new InputStreamReader(
+                        new ByteArrayInputStream(data, 0, length), UTF_8), snapshot);
+                return true;
+            default:
+                throw new IOException("Unknown payload type " + type);
+        }
+    }
+
+    // Main thread. A wait interrupted by stop() leaves its replayApplied post
+    // behind; dropping it, and any permit it already released, keeps the next
+    // payload after a resume waiting for the UI like every other one.
+    private void stopReplay() {
+        payloadReplay.stop();
+        handler.removeCallbacks(replayApplied);
+        replayAppliedSignal.drainPermits();
+    }
+
+    // Replay thread. Blocks until the main thread has applied the sample just
+    // posted, so even SPEED_MAX runs no faster than the UI and never outgrows
+    // the snapshot pool. stopReplay() interrupts the wait.
+    private void awaitReplayApplied() {
+        handler.post(replayApplied);
+        try {
+            replayAppliedSignal.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void cycleHistoryRange() {
+        historyRange = (historyRange + 1) % UtilizationGraph.RANGE_COUNT;
+        dashboard.setHistoryRange(historyRange);
+    }
+
+    private void resetInfoTexts() {
+        dashboard.resetProgress();
+    }
+
+    // Any thread
     private void handleConnectionError(final String message) {
-        consecutiveErrorCount++;
-        if (consecutiveErrorCount >= ERROR_THRESHOLD) {
-            showError("Unable to connect to server after multiple attempts");
+        connectionHealth.recordFailure(message);
+    }
+
+    private void onHealthChanged(int state, long retryDelayMs) {
+        updateConnectionStatus(state, retryDelayMs);
+        if (state == ConnectionHealth.OPEN) {
+            // Nothing is sent until the breaker's probe finds the server again
+            Log.d(TAG, "Server unreachable - pausing transport for " + retryDelayMs + " ms");
+            streamClient.stop();
+            stopPollingFallback();
+            rediscoverEndpoint();
+        } else if (state == ConnectionHealth.HEALTHY) {
+            pollInterval.reset();
+            fetchScheduler.setIntervalMs(pollInterval.getIntervalMs());
+            if (!streamClient.isRunning() && !fetchScheduler.isRunning()) {
+                startTransport();
+            }
+        } else if (state == ConnectionHealth.DEGRADED) {
+            fetchScheduler.setIntervalMs(MAX_POLL_INTERVAL_MS);
         }
     }
 
+    private void updateConnectionStatus(int state, long retryDelayMs) {
+        switch (state) {
+            case ConnectionHealth.DEGRADED:
+                connectionStatus.setText("Connection unstable");
+                break;
+            case ConnectionHealth.OPEN:
+                connectionStatus.setText("Server unreachable - retrying in "
+                        + Math.max(1, Math.round(retryDelayMs / 1000f)) + " s");
+                break;
+            case ConnectionHealth.HALF_OPEN:
+                connectionStatus.setText("Checking server...");
+                break;
+            default:
+                connectionStatus.setVisibility(View.GONE);
+                return;
+        }
+        connectionStatus.setVisibility(View.VISIBLE);
+    }
+
     @Override
     protected void onDestroy() {
         super.onDestroy();
         stopPolling();
+        fetchScheduler.shutdown();
+        if (sampleStore != null) {
+            sampleStore.close();
+        }
+        powerPosture.release();
+        closeRecorder();
         releaseWakeLock();
     }
 } 
\ No newline at end of file
@@ -0,0 +1,186 @@
+package com.systeminfo.display;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.WebSocket;
+import okhttp3.WebSocketListener;
+import okio.ByteString;
+import java.util.concurrent.TimeUnit;
+
+// Long-lived WebSocket to the server's /system-info/stream endpoint. The server
+// pushes every sample as soon as it is produced, so there is no per-request
+// overhead and no polling delay. Reconnects automatically with a growing delay.
+public class MetricsStreamClient {
+    private static final String TAG = "MetricsStreamClient";
+    private static final long INITIAL_RECONNECT_DELAY_MS = 500;
+    private static final long MAX_RECONNECT_DELAY_MS = 10000;
+    private static final int NORMAL_CLOSURE = 1000;
+
+    public interface Listener {
+        // Called on the OkHttp reader thread for every pushed JSON sample
+        void onStreamMessage(String jsonData);
+        // Called on the OkHttp reader thread for every pushed binary frame
+        void onStreamFrame(ByteString frame);
+        // Called on the main thread once the socket is open
+        void onStreamOpen();
+        // Called on the main thread each time a connection attempt fails or drops
+        void onStreamFailure(int consecutiveFailures, String message);
+    }
+
+    private final OkHttpClient client;
+    private String url;
+    private final Listener listener;
+    private final Handler handler;
+    private String acceptHeader;
+    private volatile WebSocket webSocket;
+    private boolean running = false;
+    private boolean open = false;
+    private int consecutiveFailures = 0;
+    private long reconnectDelayMs = INITIAL_RECONNECT_DELAY_MS;
+
+    private final Runnable reconnectRunnable = new Runnable() {
+        @Override
+        public void run() {
+            if (running) {
+                connect();
+            }
+        }
+    };
+
+    public MetricsStreamClient(OkHttpClient baseClient, String url, Listener listener) {
+        // Streams are idle between samples, so disable the read timeout and
+        // let WebSocket pings detect dead connections instead
+        this.client = baseClient.newBuilder()
+                .readTimeout(0, TimeUnit.MILLISECONDS)
+                .pingInterval(15, TimeUnit.SECONDS)
+                .build();
+        this.url = url;
+        this.listener = listener;
+        this.handler = new Handler(Looper.getMainLooper());
+    }
+
+    public void start() {
+        if (running) return;
+        running = true;
+        reconnectDelayMs = INITIAL_RECONNECT_DELAY_MS;
+        connect();
+    }
+
+    public void stop() {
+        running = false;
+        open = false;
+        handler.removeCallbacks(reconnectRunnable);
+        if (webSocket != null) {
+            webSocket.close(NORMAL_CLOSURE, "Client stopped");
+            webSocket = null;
+        }
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public boolean isOpen() {
+        return open;
+    }
+
+    // Takes effect on the next connection
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
+    // Sent on the upgrade request so the server can pick the frame format.
+    // Takes effect on the next connection.
+    public void setAcceptHeader(String acceptHeader) {
+        this.acceptHeader = acceptHeader;
+    }
+
+    // Safe to call from any thread; returns false if there is no open socket
+    public boolean send(String text) {
+        WebSocket socket = webSocket;
+        return socket != null && socket.send(text);
+    }
+
+    public void restart() {
+        stop();
+        start();
+    }
+
+    private void connect() {
+        Request.Builder builder = new Request.Builder()
+                .url(url);
+        if (acceptHeader != null) {
+            builder.header("Accept", acceptHeader);
+        }
+        Request request = builder.build();
+        webSocket = client.newWebSocket(request, new StreamListener());
+    }
+
+    private void scheduleReconnect(final WebSocket socket, final String message) {
+        handler.post(new Runnable() {
+            @Override
+            public void run() {
+                // Ignore callbacks from sockets that have already been replaced
+                if (!running || socket != webSocket) return;
+                open = false;
+                webSocket = null;
+                consecutiveFailures++;
+                listener.onStreamFailure(consecutiveFailures, message);
+                handler.removeCallbacks(reconnectRunnable);
+                handler.postDelayed(reconnectRunnable, reconnectDelayMs);
+                reconnectDelayMs = Math.min(reconnectDelayMs * 2, MAX_RECONNECT_DELAY_MS);
+            }
+        });
+    }
+
+    private class StreamListener extends WebSocketListener {
+        @Override
+        public void onOpen(final WebSocket socket, Response response) {
+            handler.post(new Runnable() {
+                @Override
+                public void run() {
+                    if (!running || socket != webSocket) return;
+                    open = true;
+                    consecutiveFailures = 0;
+                    reconnectDelayMs = INITIAL_RECONNECT_DELAY_MS;
+                    listener.onStreamOpen();
+                }
+            });
+        }
+
+        @Override
+        public void onMessage(WebSocket socket, String text) {
+            if (running) {
+                listener.onStreamMessage(text);
+            }
+        }
+
+        @Override
+        public void onMessage(WebSocket socket, ByteString bytes) {
+            if (running) {
+                listener.onStreamFrame(bytes);
+            }
+        }
+
+        @Override
+        public void onClosing(WebSocket socket, int code, String reason) {
+            socket.close(NORMAL_CLOSURE, null);
+        }
+
+        @Override
+        public void onClosed(WebSocket socket, int code, String reason) {
+            Log.d(TAG, "Stream closed: " + code + " " + reason);
+            scheduleReconnect(socket, "Stream closed: " + reason);
+        }
+
+        @Override
+        public void onFailure(WebSocket socket, Throwable t, Response response) {
+            Log.d(TAG, "Stream failure: " + t.getMessage());
+            scheduleReconnect(socket, "Stream error: " + t.getMessage());
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.systeminfo.display;
+
+import android.os.Handler;
+import android.os.Looper;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Polls many servers at once with OkHttp's async API. All hosts share one
+// connection pool and dispatcher, each host has at most one fetch in flight and
+// its own circuit breaker, and every call has a hard timeout, so a slow or dead
+// host only ever delays its own tiles.
+public class MultiHostMonitor {
+    // Two tiles per host must fit in the dashboard
+    public static final int MAX_HOSTS = 32;
+    private static final long CALL_TIMEOUT_MS = 3000;
+    private static final long KEEP_ALIVE_MINUTES = 5;
+    // One fetch plus one breaker probe per host
+    private static final int MAX_REQUESTS_PER_HOST = 2;
+
+    public interface Listener {
+        // Called on the main thread with a decoded sample; the snapshot is only
+        // valid during the call
+        void onHostSample(int host, SystemSnapshot snapshot);
+        // Called on the main thread when a host's circuit breaker changes state
+        void onHostHealthChanged(int host, int state);
+    }
+
+    private final Host[] hosts;
+    private final OkHttpClient client;
+    private final Listener listener;
+    private final long intervalMs;
+    private final Handler handler;
+    private final SystemSnapshot.Pool snapshotPool;
+    private final Instrumentation instrumentation = Instrumentation.getInstance();
+    private boolean running = false;
+
+    private final Runnable tickRunnable = new Runnable() {
+        @Override
+        public void run() {
+            if (!running) return;
+            for (Host host : hosts) {
+                poll(host);
+            }
+            handler.postDelayed(this, intervalMs);
+        }
+    };
+
+    // Per-host state. The decoder is only used by that host's single in-flight call.
+    private class Host {
+        final int index;
+        final String url;
+        final SnapshotDecoder decoder = new SnapshotDecoder();
+        final AtomicBoolean inFlight = new AtomicBoolean();
+        final ConnectionHealth health;
+        Call call;
+
+        Host(final int index, String baseUrl) {
+            this.index = index;
+            this.url = baseUrl + "/system-info";
+            this.health = new ConnectionHealth(client, baseUrl + "/ping", new ConnectionHealth.Listener() {
+                @Override
+                public void onHealthChanged(int state, long retryDelayMs) {
+                    listener.onHostHealthChanged(index, state);
+                }
+            });
+        }
+    }
+
+    // baseUrls are like "http://192.168.0.157:8880"
+    public MultiHostMonitor(OkHttpClient baseClient, String[] baseUrls, long intervalMs, Listener listener) {
+        if (baseUrls.length == 0 || baseUrls.length > MAX_HOSTS) {
+            throw new IllegalArgumentException("Host count must be 1.." + MAX_HOSTS);
+        }
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(baseUrls.length * MAX_REQUESTS_PER_HOST);
+        dispatcher.setMaxRequestsPerHost(MAX_REQUESTS_PER_HOST);
+        // Keep one warm connection per host across poll intervals
+        this.client = baseClient.newBuilder()
+                .dispatcher(dispatcher)
+                .connectionPool(new ConnectionPool(baseUrls.length, KEEP_ALIVE_MINUTES, TimeUnit.MINUTES))
+                .callTimeout(CALL_TIMEOUT_MS, TimeUnit.MILLISECONDS)
+                .build();
+        this.listener = listener;
+        this.intervalMs = intervalMs;
+        this.handler = new Handler(Looper.getMainLooper());
+        this.snapshotPool = new SystemSnapshot.Pool(baseUrls.length * 2);
+        this.hosts = new Host[baseUrls.length];
+        for (int i = 0; i < baseUrls.length; i++) {
+            hosts[i] = new Host(i, baseUrls[i]);
+        }
+    }
+
+    public int getHostCount() {
+        return hosts.length;
+    }
+
+    public int getHostState(int host) {
+        return hosts[host].health.getState();
+    }
+
+    public void start() {
+        if (running) return;
+        running = true;
+        handler.post(tickRunnable);
+    }
+
+    public void stop() {
+        running = false;
+        handler.removeCallbacks(tickRunnable);
+        for (Host host : hosts) {
+            Call call = host.call;
+            if (call != null) call.cancel();
+            host.health.reset();
+        }
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Main thread. Skips hosts whose breaker is open or whose last fetch is still running.
+    private void poll(final Host host) {
+        if (!host.health.allowsRequests() || !host.inFlight.compareAndSet(false, true)) return;
+        Request request = new Request.Builder()
+                .url(host.url)
+                .build();
+        final long sentAt = System.nanoTime();
+        Call call = client.newCall(request);
+        host.call = call;
+        call.enqueue(new Callback() {
+            @Override
+            public void onFailure(Call c, IOException e) {
+                host.inFlight.set(false);
+                if (!c.isCanceled()) {
+                    host.health.recordFailure(e.getMessage());
+                }
+            }
+
+            @Override
+            public void onResponse(Call c, Response response) {
+                long parseStart = System.nanoTime();
+                instrumentation.rtt.recordNanos(parseStart - sentAt);
+                SystemSnapshot snapshot = snapshotPool.acquire();
+                try {
+                    if (!response.isSuccessful()) {
+                        throw new IOException("HTTP " + response.code());
+                    }
+                    host.decoder.decode(response.body().charStream(), snapshot);
+                } catch (IOException e) {
+                    snapshotPool.release(snapshot);
+                    host.health.recordFailure(e.getMessage());
+                    return;
+                } finally {
+                    response.close();
+                    host.inFlight.set(false);
+                }
+                snapshot.decodedAtNanos = System.nanoTime();
+                snapshot.sampledAtMs = snapshot.decodedAtNanos / 1000000;
+                instrumentation.parse.recordNanos(snapshot.decodedAtNanos - parseStart);
+                host.health.recordSuccess();
+                deliver(host, snapshot);
+            }
+        });
+    }
+
+    private void deliver(final Host host, final SystemSnapshot snapshot) {
+        handler.post(new Runnable() {
+            @Override
+            public void run() {
+                instrumentation.queueDelay.recordNanos(System.nanoTime() - snapshot.decodedAtNanos);
+                if (running) {
+                    listener.onHostSample(host.index, snapshot);
+                }
+                snapshotPool.release(snapshot);
+            }
+        });
+    }
+}
@@ -0,0 +1,189 @@
+package com.systeminfo.display;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.hardware.Sensor;
+import android.hardware.SensorEvent;
+import android.hardware.SensorEventListener;
+import android.hardware.SensorManager;
+import android.os.BatteryManager;
+import android.os.Build;
+import android.os.PowerManager;
+import android.util.Log;
+
+// Decides when the dashboard is worth running. The pipeline (fetching, parsing,
+// drawing) is active only while the activity is resumed, the screen is on and the
+// phone is docked, meaning lying flat on the desk or plugged in. Everything else
+// suspends it, so a phone left running 24/7 costs almost nothing while nobody
+// can see it.
+//
+// The accelerometer is read at the normal rate but delivered in batches where
+// the hardware has a FIFO, so the CPU wakes every couple of seconds instead of
+// five times a second. Flat detection has hysteresis: a tighter band to become
+// flat than to stop being flat, and a posture must hold for HOLD_NANOS before it
+// counts, so a bump on the desk doesn't toggle the pipeline.
+public class PowerPosture implements SensorEventListener {
+    private static final String TAG = "PowerPosture";
+
+    // Enter flat inside the tight band, leave only outside the loose one
+    private static final float FLAT_ENTER_TILT = 1.5f;
+    private static final float FLAT_EXIT_TILT = 2.5f;
+    private static final float FLAT_ENTER_Z = 9.0f;
+    private static final float FLAT_EXIT_Z = 8.5f;
+    private static final long HOLD_NANOS = 2000000000L;
+    private static final int MAX_REPORT_LATENCY_US = 2000000;
+
+    public interface Listener {
+        // Called on the main thread when the pipeline should start or stop
+        void onActiveChanged(boolean active);
+        // Called on the main thread when the phone is laid down or picked up
+        void onFlatChanged(boolean flat);
+    }
+
+    private final Context context;
+    private final Listener listener;
+    private final SensorManager sensorManager;
+    private final Sensor accelerometer;
+
+    private boolean resumed = false;
+    private boolean screenOn = true;
+    private boolean pluggedIn = false;
+    // Until the first posture decision the phone is assumed docked, so a cold
+    // start shows data straight away
+    private boolean flat = false;
+    private boolean postureKnown = false;
+    private boolean active = false;
+    // Timestamp since which the readings have disagreed with the current posture, or 0
+    private long candidateSinceNanos = 0;
+
+    private final BroadcastReceiver receiver = new BroadcastReceiver() {
+        @Override
+        public void onReceive(Context c, Intent intent) {
+            String action = intent.getAction();
+            if (Intent.ACTION_SCREEN_OFF.equals(action)) {
+                screenOn = false;
+            } else if (Intent.ACTION_SCREEN_ON.equals(action)) {
+                screenOn = true;
+            } else if (Intent.ACTION_BATTERY_CHANGED.equals(action)) {
+                pluggedIn = intent.getIntExtra(BatteryManager.EXTRA_PLUGGED, 0) != 0;
+            }
+            update();
+        }
+    };
+
+    public PowerPosture(Context context, Listener listener) {
+        this.context = context;
+        this.listener = listener;
+        this.sensorManager = (SensorManager) context.getSystemService(Context.SENSOR_SERVICE);
+        this.accelerometer = sensorManager != null
+                ? sensorManager.getDefaultSensor(Sensor.TYPE_ACCELEROMETER) : null;
+
+        PowerManager powerManager = (PowerManager) context.getSystemService(Context.POWER_SERVICE);
+        if (powerManager != null) {
+            screenOn = Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT_WATCH
+                    ? powerManager.isInteractive() : powerManager.isScreenOn();
+        }
+        IntentFilter filter = new IntentFilter();
+        filter.addAction(Intent.ACTION_SCREEN_ON);
+        filter.addAction(Intent.ACTION_SCREEN_OFF);
+        filter.addAction(Intent.ACTION_BATTERY_CHANGED);
+        // Battery changes are sticky, so this also returns the current plug state
+        Intent battery = context.registerReceiver(receiver, filter);
+        if (battery != null) {
+            pluggedIn = battery.getIntExtra(BatteryManager.EXTRA_PLUGGED, 0) != 0;
+        }
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    public boolean isFlat() {
+        return flat;
+    }
+
+    // From onResume
+    public void resume() {
+        resumed = true;
+        if (accelerometer != null) {
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
+                sensorManager.registerListener(this, accelerometer,
+                        SensorManager.SENSOR_DELAY_NORMAL, MAX_REPORT_LATENCY_US);
+            } else {
+                sensorManager.registerListener(this, accelerometer, SensorManager.SENSOR_DELAY_NORMAL);
+            }
+        }
+        update();
+    }
+
+    // From onPause
+    public void pause() {
+        resumed = false;
+        if (sensorManager != null) {
+            sensorManager.unregisterListener(this);
+        }
+        candidateSinceNanos = 0;
+        update();
+    }
+
+    // From onDestroy
+    public void release() {
+        pause();
+        context.unregisterReceiver(receiver);
+    }
+
+    @Override
+    public void onSensorChanged(SensorEvent event) {
+        if (event.sensor.getType() != Sensor.TYPE_ACCELEROMETER) return;
+        float x = event.values[0];
+        float y = event.values[1];
+        float z = event.values[2];
+
+        // Which posture this single reading argues for, given the current one
+        boolean readingFlat;
+        if (flat) {
+            readingFlat = Math.abs(z) > FLAT_EXIT_Z
+                    && Math.abs(x) < FLAT_EXIT_TILT && Math.abs(y) < FLAT_EXIT_TILT;
+        } else {
+            readingFlat = Math.abs(z) > FLAT_ENTER_Z
+                    && Math.abs(x) < FLAT_ENTER_TILT && Math.abs(y) < FLAT_ENTER_TILT;
+        }
+
+        if (postureKnown && readingFlat == flat) {
+            candidateSinceNanos = 0;
+            return;
+        }
+        if (candidateSinceNanos == 0) {
+            candidateSinceNanos = event.timestamp;
+            if (postureKnown) return;
+        }
+        // Batched events arrive together, so hold time is measured on sensor timestamps
+        if (postureKnown && event.timestamp - candidateSinceNanos < HOLD_NANOS) return;
+        candidateSinceNanos = 0;
+        boolean changed = !postureKnown || readingFlat != flat;
+        postureKnown = true;
+        flat = readingFlat;
+        if (changed) {
+            Log.d(TAG, flat ? "Phone is flat" : "Phone is not flat");
+            listener.onFlatChanged(flat);
+            update();
+        }
+    }
+
+    @Override
+    public void onAccuracyChanged(Sensor sensor, int accuracy) {
+        // Not used in this implementation
+    }
+
+    private void update() {
+        boolean docked = pluggedIn || flat || !postureKnown;
+        boolean nowActive = resumed && screenOn && docked;
+        if (nowActive == active) return;
+        active = nowActive;
+        Log.d(TAG, (active ? "Resuming" : "Suspending") + " - resumed: " + resumed
+                + ", screen on: " + screenOn + ", plugged in: " + pluggedIn + ", flat: " + flat);
+        listener.onActiveChanged(active);
+    }
+}
@@ -0,0 +1,353 @@
+package com.systeminfo.display;
+
+import android.util.Log;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// Append-only on-device history of every sample, kept in fixed-size segment files
+// that are memory-mapped for both reading and writing. Each record is a timestamp,
+// one float per channel and a checksum written last, so a record torn by a crash
+// fails its checksum and is simply overwritten on the next start.
+//
+// append() only copies the sample into a small preallocated queue; the mapped
+// writes happen on the store's own thread so the UI thread never touches the disk.
+public class SampleStore {
+    private static final String TAG = "SampleStore";
+    private static final String SEGMENT_PREFIX = "samples-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    // Channel layout of a record's float values
+    public static final int CHANNEL_CPU = 0;
+    public static final int CHANNEL_MEMORY = 1;
+    public static final int CHANNEL_POWER = 2;
+    private static final int CHANNEL_FIRST_GPU = 3;
+    public static final int CHANNEL_COUNT = CHANNEL_FIRST_GPU + 2 * SystemSnapshot.MAX_GPUS;
+
+    private static final int RECORD_SIZE = 8 + 4 * CHANNEL_COUNT + 4;
+    private static final int RECORDS_PER_SEGMENT = 7200; // One hour at the 500 ms poll rate
+    private static final int MAX_SEGMENTS = 26;
+    private static final long RETENTION_MS = 24L * 60 * 60 * 1000;
+    private static final int PENDING_CAPACITY = 64;
+    // Flush mapped pages to storage every so often; a process crash loses nothing
+    // either way, this only bounds what a power cut can take
+    private static final int FORCE_INTERVAL_RECORDS = 60;
+
+    public static int gpuUsageChannel(int gpu) {
+        return CHANNEL_FIRST_GPU + 2 * gpu;
+    }
+
+    public static int gpuMemoryChannel(int gpu) {
+        return CHANNEL_FIRST_GPU + 2 * gpu + 1;
+    }
+
+    public interface RecordVisitor {
+        // Called on the store thread; values is reused between calls and NaN
+        // marks a channel with no data
+        void onRecord(long timestampMs, float[] values);
+    }
+
+    private final File directory;
+    private final ThreadPoolExecutor executor;
+
+    // Pending records, written by any thread and drained by the store thread
+    private final Object pendingLock = new Object();
+    private final long[] pendingTimestamps = new long[PENDING_CAPACITY];
+    private final float[] pendingValues = new float[PENDING_CAPACITY * CHANNEL_COUNT];
+    private int pendingHead = 0;
+    private int pendingSize = 0;
+    private boolean drainScheduled = false;
+    private long droppedCount = 0;
+
+    // Owned by the store thread
+    private RandomAccessFile segmentFile;
+    private MappedByteBuffer segment;
+    private int segmentRecords = 0;
+    private int unforcedRecords = 0;
+    private boolean opened = false;
+    private final float[] writeValues = new float[CHANNEL_COUNT];
+
+    private final Runnable drainRunnable = new Runnable() {
+        @Override
+        public void run() {
+            drain();
+        }
+    };
+
+    public SampleStore(File directory) {
+        this.directory = directory;
+        this.executor = new ThreadPoolExecutor(
+                1, 1,
+                30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(),
+                new ThreadFactory() {
+                    @Override
+                    public Thread newThread(Runnable r) {
+                        Thread thread = new Thread(r, "SampleStore");
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    // Returns at once. On the store thread, applies the retention policy, replays
+    // every stored record newer than sinceMs in time order, positions the writer
+    // after the last intact record and then runs done. Each segment is read
+    // through one mapping. Call once; samples appended meanwhile wait in the
+    // pending queue.
+    public void open(final long sinceMs, final RecordVisitor visitor, final Runnable done) {
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                openSegments(sinceMs, visitor);
+                if (done != null) done.run();
+            }
+        });
+    }
+
+    // Runs on the store thread
+    private void openSegments(long sinceMs, RecordVisitor visitor) {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            Log.e(TAG, "Can't create " + directory);
+            return;
+        }
+        File[] segments = applyRetention(System.currentTimeMillis());
+        float[] values = new float[CHANNEL_COUNT];
+        for (int i = 0; i < segments.length; i++) {
+            boolean newest = i == segments.length - 1;
+            // A segment can only hold records older than the start of the next one
+            if (!newest && segmentStart(segments[i + 1]) < sinceMs) continue;
+            try {
+                RandomAccessFile file = new RandomAccessFile(segments[i], newest ? "rw" : "r");
+                MappedByteBuffer buffer = map(file, newest);
+                int records = replay(buffer, sinceMs, visitor, values);
+                if (newest && records < RECORDS_PER_SEGMENT) {
+                    // Keep appending to the newest segment from its first free slot
+                    segmentFile = file;
+                    segment = buffer;
+                    segmentRecords = records;
+                } else {
+                    file.close();
+                }
+            } catch (IOException e) {
+                Log.e(TAG, "Skipping unreadable segment " + segments[i], e);
+            }
+        }
+        synchronized (pendingLock) {
+            opened = true;
+            scheduleDrainLocked();
+        }
+    }
+
+    // Safe to call from any thread. Never blocks on I/O; if the store thread falls
+    // behind, the oldest pending sample is dropped.
+    public void append(SystemSnapshot snapshot) {
+        long timestamp = System.currentTimeMillis();
+        synchronized (pendingLock) {
+            if (pendingSize == PENDING_CAPACITY) {
+                pendingHead = (pendingHead + 1) % PENDING_CAPACITY;
+                pendingSize--;
+                droppedCount++;
+            }
+            int slot = (pendingHead + pendingSize) % PENDING_CAPACITY;
+            pendingTimestamps[slot] = timestamp;
+            int base = slot * CHANNEL_COUNT;
+            Arrays.fill(pendingValues, base, base + CHANNEL_COUNT, Float.NaN);
+            if (snapshot.hasCpuUsage) pendingValues[base + CHANNEL_CPU] = snapshot.cpuUsage;
+            if (snapshot.hasMemoryUsage) pendingValues[base + CHANNEL_MEMORY] = snapshot.memoryUsage;
+            if (snapshot.hasPower) pendingValues[base + CHANNEL_POWER] = snapshot.getPowerPercent();
+            for (int gpu = 0; gpu < snapshot.gpuCount; gpu++) {
+                if (snapshot.hasGpuUsage[gpu]) {
+                    pendingValues[base + gpuUsageChannel(gpu)] = snapshot.gpuUsage[gpu];
+                }
+                if (snapshot.hasGpuMemory[gpu]) {
+                    pendingValues[base + gpuMemoryChannel(gpu)] = snapshot.gpuMemoryPercent[gpu];
+                }
+            }
+            pendingSize++;
+            if (opened) scheduleDrainLocked();
+        }
+    }
+
+    public long getDroppedCount() {
+        synchronized (pendingLock) {
+            return droppedCount;
+        }
+    }
+
+    // Writes what is still pending, flushes and stops the store thread
+    public void close() {
+        synchronized (pendingLock) {
+            opened = false;
+        }
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                drain();
+                closeSegment();
+            }
+        });
+        executor.shutdown();
+    }
+
+    private void scheduleDrainLocked() {
+        if (drainScheduled || pendingSize == 0) return;
+        drainScheduled = true;
+        executor.execute(drainRunnable);
+    }
+
+    // Runs on the store thread
+    private void drain() {
+        while (true) {
+            long timestamp;
+            synchronized (pendingLock) {
+                if (pendingSize == 0) {
+                    drainScheduled = false;
+                    break;
+                }
+                timestamp = pendingTimestamps[pendingHead];
+                System.arraycopy(pendingValues, pendingHead * CHANNEL_COUNT, writeValues, 0, CHANNEL_COUNT);
+                pendingHead = (pendingHead + 1) % PENDING_CAPACITY;
+                pendingSize--;
+            }
+            try {
+                write(timestamp, writeValues);
+            } catch (IOException e) {
+                Log.e(TAG, "Error writing sample", e);
+                closeSegment();
+            }
+        }
+        if (segment != null && unforcedRecords >= FORCE_INTERVAL_RECORDS) {
+            segment.force();
+            unforcedRecords = 0;
+        }
+    }
+
+    private void write(long timestamp, float[] values) throws IOException {
+        if (segment == null || segmentRecords == RECORDS_PER_SEGMENT) {
+            rotate(timestamp);
+        }
+        int offset = segmentRecords * RECORD_SIZE;
+        segment.putLong(offset, timestamp);
+        for (int c = 0; c < CHANNEL_COUNT; c++) {
+            segment.putFloat(offset + 8 + 4 * c, values[c]);
+        }
+        // The checksum goes last, so the record only becomes valid once it is complete
+        segment.putInt(offset + RECORD_SIZE - 4, checksum(timestamp, values));
+        segmentRecords++;
+        unforcedRecords++;
+    }
+
+    private void rotate(long timestamp) throws IOException {
+        closeSegment();
+        File file = new File(directory, SEGMENT_PREFIX + timestamp + SEGMENT_SUFFIX);
+        segmentFile = new RandomAccessFile(file, "rw");
+        segmentFile.setLength((long) RECORDS_PER_SEGMENT * RECORD_SIZE);
+        segment = map(segmentFile, true);
+        segmentRecords = 0;
+        applyRetention(timestamp);
+    }
+
+    private void closeSegment() {
+        if (segment != null) {
+            segment.force();
+            segment = null;
+        }
+        unforcedRecords = 0;
+        if (segmentFile != null) {
+            try {
+                segmentFile.close();
+            } catch (IOException e) {
+                Log.e(TAG, "Error closing segment", e);
+            }
+            segmentFile = null;
+        }
+    }
+
+    private static MappedByteBuffer map(RandomAccessFile file, boolean writable) throws IOException {
+        FileChannel channel = file.getChannel();
+        MappedByteBuffer buffer = channel.map(
+                writable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY,
+                0, (long) RECORDS_PER_SEGMENT * RECORD_SIZE);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        return buffer;
+    }
+
+    // Visits intact records newer than sinceMs and returns how many intact records
+    // the segment holds; the first torn or empty slot ends the segment
+    private static int replay(MappedByteBuffer buffer, long sinceMs, RecordVisitor visitor, float[] values) {
+        int capacity = Math.min(RECORDS_PER_SEGMENT, buffer.capacity() / RECORD_SIZE);
+        for (int record = 0; record < capacity; record++) {
+            int offset = record * RECORD_SIZE;
+            long timestamp = buffer.getLong(offset);
+            for (int c = 0; c < CHANNEL_COUNT; c++) {
+                values[c] = buffer.getFloat(offset + 8 + 4 * c);
+            }
+            if (timestamp <= 0 || buffer.getInt(offset + RECORD_SIZE - 4) != checksum(timestamp, values)) {
+                return record;
+            }
+            if (timestamp >= sinceMs && visitor != null) {
+                visitor.onRecord(timestamp, values);
+            }
+        }
+        return capacity;
+    }
+
+    private static int checksum(long timestamp, float[] values) {
+        int hash = 0x811C9DC5;
+        hash = (hash ^ (int) timestamp) * 0x01000193;
+        hash = (hash ^ (int) (timestamp >>> 32)) * 0x01000193;
+        for (int c = 0; c < CHANNEL_COUNT; c++) {
+            hash = (hash ^ Float.floatToRawIntBits(values[c])) * 0x01000193;
+        }
+        return hash;
+    }
+
+    // Deletes segments beyond MAX_SEGMENTS and segments whose successor already
+    // started before the retention window. Returns the remaining ones, oldest first.
+    private File[] applyRetention(long now) {
+        File[] files = directory.listFiles();
+        if (files == null) return new File[0];
+        int count = 0;
+        for (File file : files) {
+            if (segmentStart(file) > 0) files[count++] = file;
+        }
+        File[] segments = Arrays.copyOf(files, count);
+        Arrays.sort(segments, new java.util.Comparator<File>() {
+            @Override
+            public int compare(File a, File b) {
+                long startA = segmentStart(a);
+                long startB = segmentStart(b);
+                return startA < startB ? -1 : (startA == startB ? 0 : 1);
+            }
+        });
+        int first = 0;
+        while (first < segments.length - 1
+                && (segments.length - first > MAX_SEGMENTS || segmentStart(segments[first + 1]) < now - RETENTION_MS)) {
+            if (!segments[first].delete()) {
+                Log.e(TAG, "Can't delete " + segments[first]);
+            }
+            first++;
+        }
+        return Arrays.copyOfRange(segments, first, segments.length);
+    }
+
+    private static long segmentStart(File file) {
+        String name = file.getName();
+        if (!name.startsWith(SEGMENT_PREFIX) || !name.endsWith(SEGMENT_SUFFIX)) return -1;
+        try {
+            return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -1,28 +1,90 @@
 package com.systeminfo.display;
 
+import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Paint;
 import android.graphics.RectF;
 import android.graphics.Typeface;
 
 public class StatCircle {
+    private static final TraceLog TRACE = TraceLog.getInstance();
+    private static final int TRACE_PROGRESS = TRACE.define(TraceLog.VERBOSE, "circle.progress", "percent");
+    private static final Typeface LABEL_TYPEFACE = Typeface.create("sans-serif", Typeface.BOLD);
+    private static final int MAX_VALUE_CHARS = 64;
+    private static final int PROGRESS_COLOR = 0xFF222222; // Very dark gray/black for progress
+    private static final int ALERT_COLOR = 0xFFD32F2F; // Red while an alert on this metric fires
+    public static final long DEFAULT_STATS_WINDOW_MS = 60 * 1000;
+    // Shortest expected gap between samples, which sizes the stats window's ring
+    private static final long MIN_SAMPLE_INTERVAL_MS = 250;
+    private static final float TICK_LENGTH = 10f; // Each side of the ring's centre line
+    private static final int TICK_MIN = 0;
+    private static final int TICK_MAX = 1;
+    private static final int TICK_P95 = 2;
+    private static final int TICK_MEAN = 3;
+
     private Paint backgroundPaint;
     private Paint progressPaint;
     private Paint textPaint;
     private Paint labelBackgroundPaint;
     private Paint gpuMemoryPaint;
+    private Paint rangeTickPaint;
+    private Paint meanTickPaint;
+    private Paint p95TickPaint;
     private RectF rectF;
     private RectF labelRectF;
+    private RectF memoryRectF;
+    private RectF progressRectF;
     private float progress = 0;
     private float padding;
     private String label = "";
     private String memoryUsed = "";
+    private float memoryUsedValue = Float.NaN;
+    private float powerWatts = Float.NaN;
+    private float powerCostDollars = Float.NaN;
     private boolean isGpu = false;
+    private boolean alert = false;
     private UtilizationGraph utilizationGraph;
+    // Min, max, mean and p95 over the stats window, drawn as ticks across the ring
+    private WindowStats windowStats = newWindowStats(DEFAULT_STATS_WINDOW_MS);
+    private float statMin = Float.NaN;
+    private float statMax = Float.NaN;
+    private float statMean = Float.NaN;
+    private float statP95 = Float.NaN;
+    // Start and end of each tick, x0 y0 x1 y1 per TICK_ index; recomputed only
+    // when a statistic or the layout changes, not every frame
+    private final float[] tickPoints = new float[4 * 4];
     private float gpuMemoryPercent = 0f;
     private boolean showPercentage = true;
     private float labelPositionMultiplier = 1.0f; // Default multiplier
 
+    // Arcs ease towards the latest sample; the center text always shows the sample itself
+    private final AnimatedValue progressArc = new AnimatedValue();
+    private final AnimatedValue memoryArc = new AnimatedValue();
+    private boolean hasProgress = false;
+    private boolean hasMemoryPercent = false;
+
+    // Label layout, rebuilt only when the size or label changes
+    private String labelText = "";
+    private float labelX;
+    private float labelBaselineY;
+    private float labelCornerRadius;
+
+    // Center value, written into a char buffer only when the value changes
+    private final char[] valueChars = new char[MAX_VALUE_CHARS];
+    private int valueLength = 0;
+    private boolean valueDirty = true;
+    private GlyphAtlas valueAtlas;
+    private float valueTextSize;
+    private float valueY;
+
+    // Static layer: background ring, graph border and label pill, rendered once per
+    // size or label change and composited as a single bitmap each frame
+    private Bitmap staticLayer;
+    private final Canvas staticLayerCanvas = new Canvas();
+    private boolean staticLayerDirty = true;
+    private int layerWidth;
+    private int layerHeight;
+
     public StatCircle(float padding) {
         this.padding = padding;
         init();
@@ -37,7 +99,7 @@ public class StatCircle {
         backgroundPaint.setStrokeCap(Paint.Cap.BUTT);
 
         progressPaint = new Paint();
-        progressPaint.setColor(0xFF222222); // Very dark gray/black for progress
+        progressPaint.setColor(PROGRESS_COLOR);
         progressPaint.setStyle(Paint.Style.STROKE);
         progressPaint.setStrokeWidth(12f);
         progressPaint.setAntiAlias(true);
@@ -50,132 +112,260 @@ public class StatCircle {
         gpuMemoryPaint.setAntiAlias(true);
         gpuMemoryPaint.setStrokeCap(Paint.Cap.BUTT);
 
+        rangeTickPaint = newTickPaint(0xFF9E9E9E); // Gray for the window's min and max
+        meanTickPaint = newTickPaint(0xFF1976D2); // Blue for the mean
+        p95TickPaint = newTickPaint(0xFFFF8F00); // Amber for the 95th percentile
+
         labelBackgroundPaint = new Paint();
         labelBackgroundPaint.setColor(0xFF000000); // Black background
         labelBackgroundPaint.setStyle(Paint.Style.FILL);
         labelBackgroundPaint.setAntiAlias(true);
 
         textPaint = new Paint();
-        textPaint.setColor(0xFF111111); // Black for text
+        textPaint.setColor(0xFFFFFFFF); // White for label text
         textPaint.setTextAlign(Paint.Align.CENTER);
         textPaint.setAntiAlias(true);
-        textPaint.setTypeface(Typeface.create("sans-serif", Typeface.BOLD));
+        textPaint.setTypeface(LABEL_TYPEFACE);
 
         rectF = new RectF();
         labelRectF = new RectF();
+        memoryRectF = new RectF();
+        progressRectF = new RectF();
         utilizationGraph = new UtilizationGraph();
     }
 
+    private static Paint newTickPaint(int color) {
+        Paint paint = new Paint();
+        paint.setColor(color);
+        paint.setStyle(Paint.Style.STROKE);
+        paint.setStrokeWidth(3f);
+        paint.setAntiAlias(true);
+        return paint;
+    }
+
     public void setSize(int width, int height) {
         rectF.set(padding, padding, width - padding, height - padding);
+        layerWidth = width;
+        layerHeight = height;
+        updateLayout();
+    }
+
+    // Measures everything that only depends on size and label
+    private void updateLayout() {
+        // GPU memory arc sits on a slightly smaller rect, the GPU progress arc on a
+        // slightly larger one so it touches the outer edge (half of the 6f stroke)
+        float borderInset = 3f;
+        memoryRectF.set(rectF.left + borderInset, rectF.top + borderInset,
+                rectF.right - borderInset, rectF.bottom - borderInset);
+        progressRectF.set(rectF.left - borderInset, rectF.top - borderInset,
+                rectF.right + borderInset, rectF.bottom + borderInset);
+
+        // Label at the top (all caps, bold)
+        textPaint.setTextSize(rectF.width() / 14f);
+        labelText = label == null ? "" : label.toUpperCase();
+
+        // Adjust vertical position based on whether it's GPU or not, and apply custom multiplier
+        float labelY = (isGpu ? rectF.height() / 5.5f : rectF.height() / 6f) * labelPositionMultiplier;
+
+        // Calculate text bounds for the label background
+        float textWidth = textPaint.measureText(labelText);
+        float labelPadding = rectF.width() / 40f; // Padding around text
+        float textHeight = textPaint.getTextSize();
+
+        // Center the text vertically within its background
+        labelRectF.set(
+            rectF.centerX() - textWidth / 2f - labelPadding,
+            labelY - textHeight / 2f - labelPadding,
+            rectF.centerX() + textWidth / 2f + labelPadding,
+            labelY + textHeight / 2f + labelPadding
+        );
+        labelCornerRadius = labelPadding;
+        labelX = rectF.centerX();
+        labelBaselineY = labelY + textHeight / 3f;
+
+        // Center value
+        if (isGpu) {
+            valueTextSize = rectF.width() / 8f;
+            valueY = rectF.centerY() + rectF.width() / 16f;
+        } else {
+            valueTextSize = rectF.width() / 7f;
+            valueY = rectF.centerY() + rectF.width() / 14f;
+        }
+        valueAtlas = rectF.width() > 0 ? GlyphAtlas.obtain(valueTextSize) : null;
+        updateTicks();
+        staticLayerDirty = true;
+    }
+
+    private void renderStaticLayer() {
+        if (staticLayer == null || staticLayer.getWidth() != layerWidth || staticLayer.getHeight() != layerHeight) {
+            releaseStaticLayer();
+            staticLayer = Bitmap.createBitmap(layerWidth, layerHeight, Bitmap.Config.ARGB_8888);
+            staticLayerCanvas.setBitmap(staticLayer);
+        } else {
+            staticLayer.eraseColor(0x00000000);
+        }
+
+        // Graph border, then the background circle over it
+        utilizationGraph.drawBorder(staticLayerCanvas, rectF);
+        staticLayerCanvas.drawArc(rectF, 0, 360, false, backgroundPaint);
+
+        // Black background for label, then the label text in white
+        staticLayerCanvas.drawRoundRect(labelRectF, labelCornerRadius, labelCornerRadius, labelBackgroundPaint);
+        staticLayerCanvas.drawText(labelText, labelX, labelBaselineY, textPaint);
+        staticLayerDirty = false;
+    }
+
+    // Frees the cached layer; it is rebuilt on the next draw
+    public void releaseStaticLayer() {
+        if (staticLayer != null) {
+            staticLayerCanvas.setBitmap(null);
+            staticLayer.recycle();
+            staticLayer = null;
+        }
+        staticLayerDirty = true;
     }
 
     public void draw(Canvas canvas) {
+        if (layerWidth <= 0 || layerHeight <= 0) return;
+
         // Draw utilization graph as background
         utilizationGraph.draw(canvas, rectF);
 
-        // Draw background circle
-        canvas.drawArc(rectF, 0, 360, false, backgroundPaint);
-        
+        // Background circle, graph border and label from the cached layer
+        if (staticLayerDirty || staticLayer == null) {
+            renderStaticLayer();
+        }
+        canvas.drawBitmap(staticLayer, 0f, 0f, null);
+
         // For GPU circles, draw memory arc on a slightly smaller rectF
-        if (isGpu && gpuMemoryPercent > 0) {
-            float borderInset = 3f; // half of 6f stroke width
-            RectF memoryRectF = new RectF(
-                rectF.left + borderInset,
-                rectF.top + borderInset,
-                rectF.right - borderInset,
-                rectF.bottom - borderInset
-            );
-            canvas.drawArc(memoryRectF, -90, gpuMemoryPercent * 3.6f, false, gpuMemoryPaint);
+        if (isGpu && memoryArc.get() > 0) {
+            canvas.drawArc(memoryRectF, -90, memoryArc.get() * 3.6f, false, gpuMemoryPaint);
         }
-        
+
         // Draw progress arc on a slightly larger rectF so it touches the outer edge
         if (isGpu) {
-            float borderInset = 3f;
-            RectF progressRectF = new RectF(
-                rectF.left - borderInset,
-                rectF.top - borderInset,
-                rectF.right + borderInset,
-                rectF.bottom + borderInset
-            );
-            canvas.drawArc(progressRectF, -90, progress * 3.6f, false, progressPaint);
+            canvas.drawArc(progressRectF, -90, progressArc.get() * 3.6f, false, progressPaint);
         } else {
-            canvas.drawArc(rectF, -90, progress * 3.6f, false, progressPaint);
+            canvas.drawArc(rectF, -90, progressArc.get() * 3.6f, false, progressPaint);
         }
 
-        // Draw label at the top (all caps, bold)
-        textPaint.setTextSize(rectF.width() / 14f);
-        textPaint.setTypeface(Typeface.create("sans-serif", Typeface.BOLD));
-        String labelText = label == null ? "" : label.toUpperCase();
-        
-        // Adjust vertical position based on whether it's GPU or not, and apply custom multiplier
-        float labelY = (isGpu ? rectF.height() / 5.5f : rectF.height() / 6f) * labelPositionMultiplier;
-        
-        // Calculate text bounds for the label background
-        float textWidth = textPaint.measureText(labelText);
-        float padding = rectF.width() / 40f; // Padding around text
-        float textHeight = textPaint.getTextSize();
-        
-        // Center the text vertically within its background
-        labelRectF.set(
-            rectF.centerX() - textWidth / 2f - padding,
-            labelY - textHeight / 2f - padding,
-            rectF.centerX() + textWidth / 2f + padding,
-            labelY + textHeight / 2f + padding
-        );
-        
-        // Draw black background for label
-        canvas.drawRoundRect(labelRectF, padding, padding, labelBackgroundPaint);
-        
-        // Draw label text in white
-        textPaint.setColor(0xFFFFFFFF);
-        canvas.drawText(labelText, rectF.centerX(), labelY + textHeight / 3f, textPaint);
+        // Window statistics as ticks across the ring, p95 and mean on top
+        drawTick(canvas, TICK_MIN, statMin, rangeTickPaint);
+        drawTick(canvas, TICK_MAX, statMax, rangeTickPaint);
+        drawTick(canvas, TICK_P95, statP95, p95TickPaint);
+        drawTick(canvas, TICK_MEAN, statMean, meanTickPaint);
 
         // Draw value in the center
-        textPaint.setColor(0xFF111111); // Reset to black for percentage text
-        if (isGpu) {
-            textPaint.setTextSize(rectF.width() / 8f);
-            textPaint.setTypeface(Typeface.create("sans-serif", Typeface.BOLD));
-            String valueText = String.format("%s GB • %d%%", memoryUsed, (int)progress);
-            float valueY = rectF.centerY() + rectF.width() / 16f;
-            canvas.drawText(valueText, rectF.centerX(), valueY, textPaint);
+        if (valueAtlas == null) return;
+        if (valueDirty) {
+            buildValueText();
+        }
+        if (isGpu || showPercentage) {
+            valueAtlas.drawCentered(canvas, valueChars, 0, valueLength, rectF.centerX(), valueY);
         } else {
-            textPaint.setTextSize(rectF.width() / 7f);
-            textPaint.setTypeface(Typeface.create("sans-serif", Typeface.BOLD));
-            if (showPercentage) {
-                String percentText = String.format("%d%%", (int)progress);
-                float percentY = rectF.centerY() + rectF.width() / 14f;
-                canvas.drawText(percentText, rectF.centerX(), percentY, textPaint);
-            } else {
-                // Handle multi-line text for power display
-                String[] lines = memoryUsed.split("\n");
-                float lineHeight = textPaint.getTextSize() * 1.2f; // Add 20% spacing between lines
-                float totalHeight = lineHeight * lines.length;
-                float startY = rectF.centerY() + rectF.width() / 14f - (totalHeight / 2f) + (lineHeight / 2f);
-                
-                for (String line : lines) {
-                    canvas.drawText(line, rectF.centerX(), startY, textPaint);
-                    startY += lineHeight;
+            // Handle multi-line text for power display
+            int lineCount = 1;
+            for (int i = 0; i < valueLength; i++) {
+                if (valueChars[i] == '\n') lineCount++;
+            }
+            float lineHeight = valueTextSize * 1.2f; // Add 20% spacing between lines
+            float totalHeight = lineHeight * lineCount;
+            float lineY = valueY - (totalHeight / 2f) + (lineHeight / 2f);
+
+            int lineStart = 0;
+            for (int i = 0; i <= valueLength; i++) {
+                if (i == valueLength || valueChars[i] == '\n') {
+                    valueAtlas.drawCentered(canvas, valueChars, lineStart, i - lineStart, rectF.centerX(), lineY);
+                    lineY += lineHeight;
+                    lineStart = i + 1;
                 }
             }
         }
     }
 
-    public void setProgress(float progress) {
-        this.progress = progress;
-        android.util.Log.d("StatCircle", "Setting progress to: " + progress);
-        utilizationGraph.initializeWithValue(progress);
+    private void drawTick(Canvas canvas, int tick, float percent, Paint paint) {
+        if (Float.isNaN(percent)) return;
+        int i = tick * 4;
+        canvas.drawLine(tickPoints[i], tickPoints[i + 1], tickPoints[i + 2], tickPoints[i + 3], paint);
     }
 
-    public void setMemoryProgress(float progress) {
+    private void updateTicks() {
+        RectF ring = isGpu ? progressRectF : rectF;
+        setTick(TICK_MIN, statMin, ring);
+        setTick(TICK_MAX, statMax, ring);
+        setTick(TICK_P95, statP95, ring);
+        setTick(TICK_MEAN, statMean, ring);
+    }
+
+    private void setTick(int tick, float percent, RectF ring) {
+        if (Float.isNaN(percent)) return;
+        double angle = Math.toRadians(-90 + percent * 3.6f);
+        float cos = (float) Math.cos(angle);
+        float sin = (float) Math.sin(angle);
+        float radius = ring.width() / 2f;
+        float inner = radius - TICK_LENGTH;
+        float outer = radius + TICK_LENGTH;
+        int i = tick * 4;
+        tickPoints[i] = ring.centerX() + cos * inner;
+        tickPoints[i + 1] = ring.centerY() + sin * inner;
+        tickPoints[i + 2] = ring.centerX() + cos * outer;
+        tickPoints[i + 3] = ring.centerY() + sin * outer;
+    }
+
+    // Same text the views used to build with String.format, written without allocating
+    private void buildValueText() {
+        if (isGpu) {
+            valueLength = ValueFormatter.formatGpu(valueChars, 0, memoryUsedValue, memoryUsed, progress);
+        } else if (showPercentage) {
+            valueLength = ValueFormatter.formatPercent(valueChars, 0, progress);
+        } else if (!Float.isNaN(powerWatts)) {
+            valueLength = ValueFormatter.formatPower(valueChars, 0, powerWatts, powerCostDollars);
+        } else {
+            valueLength = ValueFormatter.formatMemoryUsed(valueChars, 0, memoryUsedValue, memoryUsed);
+        }
+        valueDirty = false;
+    }
+
+    // The setters below return true when the change is visible, so views can skip
+    // redundant invalidates
+
+    public boolean setProgress(float progress) {
+        boolean changed = updateProgress(progress);
+        TRACE.recordFloat(TRACE_PROGRESS, progress);
+        return changed;
+    }
+
+    public boolean setMemoryProgress(float progress) {
         if (isGpu) {
             // For GPU circles, this sets the GPU memory border
-            setGpuMemoryPercent(progress);
+            return setGpuMemoryPercent(progress);
         } else {
             // For main memory circle, this sets the main progress
-            this.progress = progress;
-            utilizationGraph.initializeWithValue(progress);
+            return updateProgress(progress);
+        }
+    }
+
+    private boolean updateProgress(float progress) {
+        boolean changed = !hasProgress || progress != this.progress;
+        if ((int) progress != (int) this.progress) valueDirty = true;
+        this.progress = progress;
+        if (hasProgress) {
+            progressArc.setTarget(progress);
+        } else {
+            // Nothing to animate from on the first sample
+            progressArc.snapTo(progress);
+            hasProgress = true;
         }
+        utilizationGraph.initializeWithValue(progress);
+        return changed;
+    }
+
+    // Advances the arcs and the graph's newest point; returns true while anything is moving
+    public boolean stepAnimation(long frameTimeNanos) {
+        boolean progressMoving = progressArc.update(frameTimeNanos);
+        boolean memoryMoving = memoryArc.update(frameTimeNanos);
+        boolean graphMoving = utilizationGraph.stepAnimation(frameTimeNanos);
+        return progressMoving || memoryMoving || graphMoving;
     }
 
     public void setLabel(String label) {
@@ -190,14 +380,104 @@ public class StatCircle {
             progressPaint.setStrokeWidth(12f);
             gpuMemoryPaint.setStrokeWidth(12f);
         }
+        valueDirty = true;
+        updateLayout();
     }
 
     public void setMemoryUsed(String memoryUsed) {
         this.memoryUsed = memoryUsed;
+        this.memoryUsedValue = Float.NaN;
+        this.powerWatts = Float.NaN;
+        valueDirty = true;
+    }
+
+    // Numeric variant that only rebuilds the text when the value actually changes
+    public boolean setMemoryUsed(float memoryUsedGb) {
+        if (memoryUsedGb == memoryUsedValue) return false;
+        this.memoryUsedValue = memoryUsedGb;
+        valueDirty = true;
+        return true;
+    }
+
+    // Power display: watts on the first line and, if known, monthly cost on the second
+    public boolean setPowerValues(float watts, float costDollarsPerMonth) {
+        if (watts == powerWatts && (costDollarsPerMonth == powerCostDollars
+                || (Float.isNaN(costDollarsPerMonth) && Float.isNaN(powerCostDollars)))) return false;
+        this.powerWatts = watts;
+        this.powerCostDollars = costDollarsPerMonth;
+        valueDirty = true;
+        return true;
+    }
+
+    public boolean addUtilizationSample(float utilization, long timestampMs) {
+        boolean changed = utilizationGraph.addSample(utilization, timestampMs);
+        windowStats.addSample(utilization, timestampMs);
+        return updateStats() | changed;
+    }
+
+    // Empties the graph and the window statistics ahead of a history load, so
+    // stored samples don't land behind newer live ones
+    public void clearHistory() {
+        utilizationGraph.clear();
+        windowStats.reset();
+        updateStats();
+    }
+
+    // Replaces the graph's samples and tiers with history built elsewhere. Call
+    // it after the stored samples' addHistorySample calls; the ticks are only
+    // recomputed here, once per load.
+    public void loadHistory(GraphSeries history) {
+        utilizationGraph.loadHistory(history);
+        updateStats();
+    }
+
+    // Feeds a stored sample into the window statistics only; the graph gets
+    // its history from loadHistory, the arcs and value text from the next
+    // live sample
+    public void addHistorySample(float utilization, long timestampMs) {
+        windowStats.addSample(utilization, timestampMs);
+    }
+
+    // Statistics restart empty over the new window
+    public void setStatsWindow(long windowMs) {
+        if (windowMs == windowStats.getWindowMs()) return;
+        windowStats = newWindowStats(windowMs);
+        updateStats();
     }
 
-    public void addUtilizationSample(float utilization) {
-        utilizationGraph.addSample(utilization);
+    private static WindowStats newWindowStats(long windowMs) {
+        return new WindowStats(windowMs, statsCapacity(windowMs));
+    }
+
+    // Most samples a stats window of windowMs can hold
+    static int statsCapacity(long windowMs) {
+        return (int) (windowMs / MIN_SAMPLE_INTERVAL_MS) + 1;
+    }
+
+    // Reads the window's statistics, which are constant-time queries; returns
+    // true if a tick moved
+    private boolean updateStats() {
+        float min = windowStats.getMin();
+        float max = windowStats.getMax();
+        float mean = windowStats.getMean();
+        float p95 = windowStats.getPercentile(95);
+        boolean changed = !same(min, statMin) || !same(max, statMax)
+                || !same(mean, statMean) || !same(p95, statP95);
+        statMin = min;
+        statMax = max;
+        statMean = mean;
+        statP95 = p95;
+        if (changed) updateTicks();
+        return changed;
+    }
+
+    private static boolean same(float a, float b) {
+        return a == b || (Float.isNaN(a) && Float.isNaN(b));
+    }
+
+    // One of the UtilizationGraph.RANGE_* constants
+    public void setHistoryRange(int range) {
+        utilizationGraph.setRange(range);
     }
 
     public RectF getRectF() {
@@ -208,15 +488,33 @@ public class StatCircle {
         return isGpu;
     }
 
-    public void setGpuMemoryPercent(float percent) {
+    public boolean setGpuMemoryPercent(float percent) {
+        boolean changed = !hasMemoryPercent || percent != gpuMemoryPercent;
         this.gpuMemoryPercent = percent;
+        if (hasMemoryPercent) {
+            memoryArc.setTarget(percent);
+        } else {
+            memoryArc.snapTo(percent);
+            hasMemoryPercent = true;
+        }
+        return changed;
+    }
+
+    // Colors the progress arc while an alert is firing
+    public boolean setAlert(boolean alert) {
+        if (alert == this.alert) return false;
+        this.alert = alert;
+        progressPaint.setColor(alert ? ALERT_COLOR : PROGRESS_COLOR);
+        return true;
     }
 
     public void setShowPercentage(boolean show) {
         this.showPercentage = show;
+        valueDirty = true;
     }
 
     public void setLabelPositionMultiplier(float multiplier) {
         this.labelPositionMultiplier = multiplier;
+        updateLayout();
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,73 @@
+package com.systeminfo.display;
+
+// Stored samples reduced, on the store thread, to what the dashboard shows of
+// them: per SampleStore channel the graph's raw ring and 10 s / 1 min tiers,
+// plus its newest samples for the stats window. A day of records passes
+// through here instead of through the main thread, which only copies a few
+// thousand numbers per ring into the tiles once the load is done. Channels are
+// allocated the first time they carry data.
+public class StoredHistory implements SampleStore.RecordVisitor {
+    private final int recentCapacity;
+    private final GraphSeries[] series = new GraphSeries[SampleStore.CHANNEL_COUNT];
+    private final float[] latest = new float[SampleStore.CHANNEL_COUNT];
+    // Newest samples of each channel, a ring of recentCapacity entries
+    private final float[][] recentValues = new float[SampleStore.CHANNEL_COUNT][];
+    private final long[][] recentTimestamps = new long[SampleStore.CHANNEL_COUNT][];
+    private final int[] recentNext = new int[SampleStore.CHANNEL_COUNT];
+
+    public StoredHistory(long statsWindowMs) {
+        this.recentCapacity = StatCircle.statsCapacity(statsWindowMs);
+        for (int c = 0; c < latest.length; c++) latest[c] = Float.NaN;
+    }
+
+    @Override
+    public void onRecord(long timestampMs, float[] values) {
+        for (int c = 0; c < SampleStore.CHANNEL_COUNT; c++) {
+            float value = values[c];
+            if (Float.isNaN(value)) continue;
+            if (series[c] == null) {
+                series[c] = new GraphSeries();
+                recentValues[c] = new float[recentCapacity];
+                recentTimestamps[c] = new long[recentCapacity];
+            }
+            series[c].addSample(value, timestampMs);
+            latest[c] = value;
+            int slot = recentNext[c]++ % recentCapacity;
+            recentValues[c][slot] = value;
+            recentTimestamps[c][slot] = timestampMs;
+        }
+    }
+
+    public boolean hasChannel(int channel) {
+        return series[channel] != null;
+    }
+
+    // Null if the channel never had data
+    public GraphSeries getSeries(int channel) {
+        return series[channel];
+    }
+
+    // The channel's newest stored value, NaN if it never had data
+    public float getLatest(int channel) {
+        return latest[channel];
+    }
+
+    // Number of the channel's newest samples kept for the stats window. Older
+    // ones among them fall out of the window as they are added to it.
+    public int getRecentCount(int channel) {
+        return Math.min(recentNext[channel], recentCapacity);
+    }
+
+    // Recent samples, oldest first, for index < getRecentCount(channel)
+    public float getRecentValue(int channel, int index) {
+        return recentValues[channel][recentSlot(channel, index)];
+    }
+
+    public long getRecentTimestamp(int channel, int index) {
+        return recentTimestamps[channel][recentSlot(channel, index)];
+    }
+
+    private int recentSlot(int channel, int index) {
+        return (recentNext[channel] - getRecentCount(channel) + index) % recentCapacity;
+    }
+}
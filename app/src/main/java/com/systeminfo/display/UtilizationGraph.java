@@ -4,136 +4,143 @@ import android.graphics.Canvas;
 import android.graphics.Paint;
 import android.graphics.Path;
 import android.graphics.RectF;
-import android.graphics.Region;
 
 public class UtilizationGraph {
-    private static final int HISTORY_SIZE = 60;
-    private final float[] utilizationHistory = new float[HISTORY_SIZE];
-    private int historyIndex = 0;
-    private boolean historyInitialized = false;
-
-    public void addSample(float utilization) {
-        utilizationHistory[historyIndex] = utilization;
-        historyIndex = (historyIndex + 1) % HISTORY_SIZE;
-        if (!historyInitialized && historyIndex == 0) historyInitialized = true;
+    // Selectable time ranges; each one reads from a different history tier
+    public static final int RANGE_30_SECONDS = GraphSeries.RANGE_30_SECONDS;
+    public static final int RANGE_10_MINUTES = GraphSeries.RANGE_10_MINUTES;
+    public static final int RANGE_24_HOURS = GraphSeries.RANGE_24_HOURS;
+    public static final int RANGE_COUNT = GraphSeries.RANGE_COUNT;
+
+    // Samples and geometry live in the core module so they can be benchmarked on the JVM
+    private final GraphSeries series = new GraphSeries();
+    private final BowlGeometry geometry = new BowlGeometry(GraphSeries.MAX_POINTS);
+    private final float[] values = new float[GraphSeries.MAX_POINTS];
+
+    // Paints and paths are created once and reused for every frame
+    private final Paint whitePaint = new Paint();
+    private final Paint bowlPaint = new Paint();
+    private final Paint graphBorderPaint = new Paint();
+    private final Paint borderPaint = new Paint();
+    private final Path bowlPath = new Path();
+    // The utilization line alone, broken wherever the history has a gap
+    private final Path linePath = new Path();
+
+    public UtilizationGraph() {
+        whitePaint.setColor(0xFFFFFFFF);
+        whitePaint.setStyle(Paint.Style.FILL);
+        whitePaint.setAntiAlias(true);
+
+        bowlPaint.setColor(0xFFF2F2F2);
+        bowlPaint.setStyle(Paint.Style.FILL);
+        bowlPaint.setAntiAlias(true);
+
+        graphBorderPaint.setColor(0xFFE0E0E0); // Slightly darker than the graph color
+        graphBorderPaint.setStyle(Paint.Style.STROKE);
+        graphBorderPaint.setStrokeWidth(0.5f);
+        graphBorderPaint.setAntiAlias(true);
+
+        borderPaint.setColor(0xFFB0B0B0);
+        borderPaint.setStyle(Paint.Style.STROKE);
+        borderPaint.setStrokeWidth(0.5f);
+        borderPaint.setAntiAlias(true);
+    }
+
+    // Returns true if the graph looks different afterwards
+    public boolean addSample(float utilization) {
+        return series.addSample(utilization, System.currentTimeMillis());
+    }
+
+    public boolean addSample(float utilization, long timestampMs) {
+        return series.addSample(utilization, timestampMs);
+    }
+
+    public void loadHistory(GraphSeries history) {
+        series.copyFrom(history);
+    }
+
+    public void clear() {
+        series.clear();
     }
 
+    public int getRange() {
+        return series.getRange();
+    }
+
+    public void setRange(int range) {
+        series.setRange(range);
+    }
+
+    // Draws the white background and the bowl. Everything here lies inside the
+    // circle, so no clip is needed. The outer border is static and drawn separately
+    // by drawBorder so it can be cached with the rest of the circle's static layer.
     public void draw(Canvas canvas, RectF bounds) {
         try {
-            int save = canvas.save();
-            Path clipPath = new Path();
-            float cx = bounds.centerX();
-            float cy = bounds.centerY();
-            float radius = (bounds.width() / 2f);
-            clipPath.addCircle(cx, cy, radius, Path.Direction.CW);
-            canvas.clipPath(clipPath, Region.Op.INTERSECT);
+            int count = series.loadValues(values);
+            geometry.update(bounds.left, bounds.top, bounds.right, bounds.bottom, count);
+            float cx = geometry.getCenterX();
+            float cy = geometry.getCenterY();
 
             // 1. Draw a white circle as the background
-            Paint whitePaint = new Paint();
-            whitePaint.setColor(0xFFFFFFFF);
-            whitePaint.setStyle(Paint.Style.FILL);
-            whitePaint.setAntiAlias(true);
-            canvas.drawCircle(cx, cy, radius * 0.96f, whitePaint); // 0.96 to avoid border overlap
-
-            // 2. Prepare for utilization bowl path
-            float margin = radius * 0.03f; // Reduced margin for tighter fit
-            float graphRadius = radius - margin;
-            float graphLeft = cx - graphRadius;
-            float graphRight = cx + graphRadius;
-            float graphBottom = cy + graphRadius;
-            float graphTop = cy - graphRadius;
-            float graphWidth = graphRight - graphLeft;
-            float graphHeight = graphBottom - graphTop;
-            float baselineY = graphBottom;
-            float availableHeight = graphHeight;
-
-            int count = historyInitialized ? HISTORY_SIZE : historyIndex;
-            if (count < 2) return;
-            float[] xs = new float[count];
-            float[] ys = new float[count];
-            float step = graphWidth / (count - 1);
-
-            // Only sample points within the circle
-            int validStart = -1, validEnd = -1;
-            for (int i = 0; i < count; i++) {
-                xs[i] = graphLeft + i * step;
-                float relX = (xs[i] - cx) / graphRadius;
-                if (Math.abs(relX) <= 1f) {
-                    if (validStart == -1) validStart = i;
-                    validEnd = i;
-                }
-                int idx = (historyIndex + i) % HISTORY_SIZE;
-                float util = utilizationHistory[idx];
-                if (util < 0f) util = 0f;
-                if (util > 100f) util = 100f;
-                float unclampedY = graphBottom - (util / 100f) * availableHeight;
-                // Clamp y so it never goes below the circle's bottom edge
-                float relXForClamp = (xs[i] - cx) / graphRadius;
-                relXForClamp = Math.max(-1f, Math.min(1f, relXForClamp));
-                float circleY = cy + graphRadius * (float)Math.sqrt(1 - relXForClamp * relXForClamp);
-                ys[i] = Math.min(unclampedY, circleY);
+            canvas.drawCircle(cx, cy, geometry.getRadius() * 0.96f, whitePaint); // 0.96 to avoid border overlap
+
+            if (!geometry.hasBowl()) {
+                return;
             }
-            if (validStart == -1 || validEnd == -1 || validEnd - validStart < 1) return;
+
+            // 2. Only the y values depend on the samples
+            geometry.computeYs(values, count);
 
             // 3. Draw the bowl path (area under the utilization line)
-            Path bowlPath = new Path();
-            bowlPath.moveTo(xs[validStart], ys[validStart]);
-            for (int i = validStart + 1; i <= validEnd; i++) {
-                bowlPath.lineTo(xs[i], ys[i]);
+            int validStart = geometry.getValidStart();
+            int validEnd = geometry.getValidEnd();
+            bowlPath.rewind();
+            linePath.rewind();
+            bowlPath.moveTo(geometry.getX(validStart), geometry.getY(validStart));
+            boolean lineStarted = false;
+            for (int i = validStart; i <= validEnd; i++) {
+                float x = geometry.getX(i);
+                float y = geometry.getY(i);
+                if (i > validStart) bowlPath.lineTo(x, y);
+                if (geometry.isGap(i)) {
+                    lineStarted = false;
+                } else if (lineStarted) {
+                    linePath.lineTo(x, y);
+                } else {
+                    linePath.moveTo(x, y);
+                    lineStarted = true;
+                }
             }
-            // Draw the bottom arc of the circle from rightmost to leftmost using fine angle steps
-            float leftRelX = (xs[validStart] - cx) / graphRadius;
-            float rightRelX = (xs[validEnd] - cx) / graphRadius;
-            leftRelX = Math.max(-1f, Math.min(1f, leftRelX));
-            rightRelX = Math.max(-1f, Math.min(1f, rightRelX));
-            float leftAngle = (float)Math.acos(leftRelX);
-            float rightAngle = (float)Math.acos(rightRelX);
-            if (ys[validStart] < cy) leftAngle = (float)(2 * Math.PI - leftAngle);
-            if (ys[validEnd] < cy) rightAngle = (float)(2 * Math.PI - rightAngle);
-            int arcSteps = 60;
-            for (int i = arcSteps; i >= 0; i--) {
-                float t = (float)i / arcSteps;
-                float angle = leftAngle + t * (rightAngle - leftAngle);
-                float arcX = cx + graphRadius * (float)Math.cos(angle);
-                float arcY = cy + graphRadius * (float)Math.sin(angle);
-                bowlPath.lineTo(arcX, arcY);
+            // Close along the precomputed circle arc from rightmost to leftmost
+            int arc = geometry.arcIndex();
+            float[] arcX = geometry.getArcXs(arc);
+            float[] arcY = geometry.getArcYs(arc);
+            for (int i = BowlGeometry.ARC_STEPS; i >= 0; i--) {
+                bowlPath.lineTo(arcX[i], arcY[i]);
             }
             bowlPath.close();
-            Paint bowlPaint = new Paint();
-            bowlPaint.setColor(0xFFF2F2F2);
-            bowlPaint.setStyle(Paint.Style.FILL);
-            bowlPaint.setAntiAlias(true);
             canvas.drawPath(bowlPath, bowlPaint);
 
-            // Draw a thin border around the graph
-            Paint graphBorderPaint = new Paint();
-            graphBorderPaint.setColor(0xFFE0E0E0); // Slightly darker than the graph color
-            graphBorderPaint.setStyle(Paint.Style.STROKE);
-            graphBorderPaint.setStrokeWidth(0.5f);
-            graphBorderPaint.setAntiAlias(true);
-            canvas.drawPath(bowlPath, graphBorderPaint);
-
-            // 4. Draw a thin, darker border for the graph
-            Paint borderPaint = new Paint();
-            borderPaint.setColor(0xFFB0B0B0);
-            borderPaint.setStyle(Paint.Style.STROKE);
-            borderPaint.setStrokeWidth(0.5f);
-            borderPaint.setAntiAlias(true);
-            canvas.drawCircle(cx, cy, graphRadius, borderPaint);
-
-            canvas.restoreToCount(save);
+            // Thin line along the top of the bowl; its lower edge is the circle border
+            canvas.drawPath(linePath, graphBorderPaint);
         } catch (Exception e) {
             android.util.Log.e("UtilizationGraph", "Exception in draw", e);
         }
     }
 
+    // 4. Draw a thin, darker border for the graph
+    public void drawBorder(Canvas canvas, RectF bounds) {
+        int count = geometry.getCount();
+        geometry.update(bounds.left, bounds.top, bounds.right, bounds.bottom, count < 0 ? 0 : count);
+        canvas.drawCircle(geometry.getCenterX(), geometry.getCenterY(), geometry.getGraphRadius(), borderPaint);
+    }
+
+    // Returns true while the newest point is still moving
+    public boolean stepAnimation(long frameTimeNanos) {
+        return series.stepAnimation(frameTimeNanos);
+    }
+
     public void initializeWithValue(float value) {
-        if (!historyInitialized && historyIndex == 0) {
-            for (int i = 0; i < HISTORY_SIZE; i++) {
-                utilizationHistory[i] = value;
-            }
-            historyIndex = 1;
-            historyInitialized = true;
-        }
+        series.initializeWithValue(value);
     }
-} 
\ No newline at end of file
+}
\ No newline at end of file
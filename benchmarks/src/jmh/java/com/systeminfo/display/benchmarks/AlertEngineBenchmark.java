@@ -0,0 +1,82 @@
+package com.systeminfo.display.benchmarks;
+
+import com.systeminfo.display.AlertEngine;
+import com.systeminfo.display.AlertRule;
+import com.systeminfo.display.SystemSnapshot;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import java.util.concurrent.TimeUnit;
+
+// Evaluating one sample against a host's alert rules, a mix of thresholds,
+// EWMA deviation and rate of change. Time per op should grow in step with the
+// rule count and allocations stay at zero.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class AlertEngineBenchmark {
+    private static final long SAMPLE_INTERVAL_MS = 500;
+
+    @Param({"4", "48"})
+    public int rules;
+
+    private final SystemSnapshot[] samples = new SystemSnapshot[64];
+    private AlertEngine engine;
+    private long nowMs;
+    private int tick;
+
+    @Setup
+    public void setUp() {
+        AlertRule[] alertRules = new AlertRule[rules];
+        for (int i = 0; i < rules; i++) {
+            int gpu = i % 8 + 1;
+            switch (i % 4) {
+                case 0:
+                    alertRules[i] = AlertRule.above("memory", "gpu" + gpu + ".memoryPercent", 95f, 10000);
+                    break;
+                case 1:
+                    alertRules[i] = AlertRule.above("power", "totalPower/totalPowerLimit", 0.95f, 30000);
+                    break;
+                case 2:
+                    alertRules[i] = AlertRule.deviation("usage", "gpu" + gpu + ".usage", 0.02f, 4f, 15f, 5000);
+                    break;
+                default:
+                    alertRules[i] = AlertRule.rateOfChange("cpu", "cpuUsage", 2f, 5000);
+                    break;
+            }
+        }
+        engine = new AlertEngine(alertRules, new AlertEngine.Listener() {
+            @Override
+            public void onAlertChanged(int rule, boolean firing, float value) {
+            }
+        });
+        for (int i = 0; i < samples.length; i++) {
+            SystemSnapshot sample = new SystemSnapshot();
+            sample.hasCpuUsage = true;
+            sample.cpuUsage = 30f + (i * 37) % 60;
+            sample.hasPower = true;
+            sample.totalPower = 300f + (i * 53) % 350;
+            sample.totalPowerLimit = 650f;
+            sample.gpuCount = 8;
+            for (int g = 0; g < 8; g++) {
+                sample.hasGpuUsage[g] = true;
+                sample.gpuUsage[g] = (i * 13 + g * 7) % 100;
+                sample.hasGpuMemory[g] = true;
+                sample.gpuMemoryPercent[g] = 60f + (i * 11 + g) % 40;
+            }
+            samples[i] = sample;
+        }
+    }
+
+    @Benchmark
+    public int evaluate() {
+        nowMs += SAMPLE_INTERVAL_MS;
+        engine.evaluate(samples[tick++ & (samples.length - 1)], nowMs);
+        return engine.getFiringCount();
+    }
+}
@@ -0,0 +1,51 @@
+package com.systeminfo.display.benchmarks;
+
+import com.systeminfo.display.BowlGeometry;
+import com.systeminfo.display.GraphSeries;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import java.util.concurrent.TimeUnit;
+
+// The bowl math behind every graph frame: the per-frame y values against cached
+// geometry, and a full rebuild as after a resize or a change in point count
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class BowlGeometryBenchmark {
+    @Param({"60", "120"})
+    public int points;
+
+    private final BowlGeometry geometry = new BowlGeometry(GraphSeries.MAX_POINTS);
+    private final float[] values = new float[GraphSeries.MAX_POINTS];
+    private float size = 480f;
+
+    @Setup
+    public void setUp() {
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (i * 37) % 100;
+        }
+        geometry.update(8f, 8f, 488f, 488f, points);
+    }
+
+    @Benchmark
+    public int frame() {
+        geometry.update(8f, 8f, 488f, 488f, points);
+        geometry.computeYs(values, points);
+        return geometry.arcIndex();
+    }
+
+    @Benchmark
+    public int rebuild() {
+        // Alternate between two sizes so every call misses the cache
+        size = size == 480f ? 481f : 480f;
+        geometry.update(8f, 8f, 8f + size, 8f + size, points);
+        geometry.computeYs(values, points);
+        return geometry.arcIndex();
+    }
+}
@@ -0,0 +1,56 @@
+package com.systeminfo.display.benchmarks;
+
+import com.systeminfo.display.GraphSeries;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import java.util.concurrent.TimeUnit;
+
+// The graph's history buffers: adding a sample to the raw ring and both tiers,
+// and reading the drawn points for each range
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class GraphSeriesBenchmark {
+    private static final long SAMPLE_INTERVAL_MS = 500;
+
+    @Param({"0", "1", "2"}) // GraphSeries.RANGE_*
+    public int range;
+
+    private final GraphSeries series = new GraphSeries();
+    private final float[] values = new float[GraphSeries.MAX_POINTS];
+    private long timestampMs;
+    private int tick;
+
+    @Setup
+    public void setUp() {
+        series.setRange(range);
+        // Fill a full day so every tier reads complete buckets
+        timestampMs = 0;
+        for (int i = 0; i < 24 * 60 * 60 * 1000 / SAMPLE_INTERVAL_MS; i++) {
+            series.addSample(nextValue(), timestampMs);
+            timestampMs += SAMPLE_INTERVAL_MS;
+        }
+    }
+
+    private float nextValue() {
+        tick++;
+        return (tick * 37) % 100;
+    }
+
+    @Benchmark
+    public boolean addSample() {
+        timestampMs += SAMPLE_INTERVAL_MS;
+        return series.addSample(nextValue(), timestampMs);
+    }
+
+    @Benchmark
+    public int loadValues() {
+        return series.loadValues(values);
+    }
+}
@@ -0,0 +1,52 @@
+package com.systeminfo.display.benchmarks;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+// Representative /system-info payloads: a desktop with the given number of GPUs
+// and CPU cores, in the JSON and binary frame formats the server sends.
+final class Payloads {
+    private Payloads() {
+    }
+
+    static String json(int gpus, int cores) {
+        StringBuilder json = new StringBuilder();
+        json.append("{\"cpuUsage\": 37.5, \"memoryUsage\": 61.2");
+        json.append(", \"cpuCores\": [");
+        for (int i = 0; i < cores; i++) {
+            if (i > 0) json.append(", ");
+            json.append(10f + (i * 7) % 90);
+        }
+        json.append(']');
+        for (int g = 1; g <= gpus; g++) {
+            json.append(", \"gpu").append(g).append("\": {\"usage\": 83.0, \"memoryUsed\": 10.5")
+                    .append(", \"memoryTotal\": 24.0, \"memoryPercent\": 43.75")
+                    .append(", \"powerDraw\": 287.4, \"powerLimit\": 450.0}");
+        }
+        json.append(", \"totalPower\": 412.9, \"totalPowerLimit\": 650.0")
+                .append(", \"totalPowerCostInDollarsPerMonth\": 38.64")
+                .append(", \"totalPowerCostInCentsPerHour\": 5.37}");
+        return json.toString();
+    }
+
+    // Same sample as json(), laid out as documented in BinarySnapshotDecoder
+    static ByteBuffer frame(int gpus, int cores) {
+        ByteBuffer frame = ByteBuffer.allocate(4 + 24 + gpus * 28 + 4 + cores * 4)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        frame.put((byte) 1); // version
+        frame.put((byte) (1 | 1 << 1 | 1 << 2 | 1 << 3 | 1 << 5)); // cpu, memory, power, cost, cores
+        frame.put((byte) gpus);
+        frame.put((byte) 0);
+        frame.putFloat(37.5f).putFloat(61.2f).putFloat(412.9f).putFloat(650f).putFloat(38.64f).putFloat(5.37f);
+        for (int g = 0; g < gpus; g++) {
+            frame.put((byte) (1 | 1 << 1)).put((byte) 0).put((byte) 0).put((byte) 0);
+            frame.putFloat(83f).putFloat(10.5f).putFloat(24f).putFloat(43.75f).putFloat(287.4f).putFloat(450f);
+        }
+        frame.putShort((short) cores).putShort((short) 0);
+        for (int i = 0; i < cores; i++) {
+            frame.putFloat(10f + (i * 7) % 90);
+        }
+        frame.flip();
+        return frame;
+    }
+}
@@ -0,0 +1,92 @@
+package com.systeminfo.display.benchmarks;
+
+import com.systeminfo.display.BinarySnapshotDecoder;
+import com.systeminfo.display.DeltaStateModel;
+import com.systeminfo.display.PayloadReader;
+import com.systeminfo.display.PayloadRecorder;
+import com.systeminfo.display.SnapshotDecoder;
+import com.systeminfo.display.SystemSnapshot;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+// Decodes a whole payload recording at maximum speed, the way the app's replay
+// mode feeds it, so captures from a real session can be benchmarked and
+// compared between builds. Pass a capture pulled from the phone with
+//   java -jar build/libs/benchmarks-jmh.jar ReplayDecode -p recording=capture.sirp
+// Without one, ten minutes of the synthetic sample in Payloads is used.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ReplayDecodeBenchmark {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final int SYNTHETIC_SAMPLES = 1200;
+
+    @Param({""})
+    public String recording;
+
+    private final SnapshotDecoder jsonDecoder = new SnapshotDecoder();
+    private final BinarySnapshotDecoder binaryDecoder = new BinarySnapshotDecoder();
+    private final DeltaStateModel deltaModel = new DeltaStateModel(jsonDecoder);
+    private final SystemSnapshot snapshot = new SystemSnapshot();
+    private byte[] bytes;
+
+    @Setup
+    public void setUp() throws IOException {
+        if (!recording.isEmpty()) {
+            bytes = Files.readAllBytes(Paths.get(recording));
+            return;
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PayloadRecorder recorder = new PayloadRecorder(out);
+        String json = Payloads.json(2, 16);
+        ByteBuffer frame = Payloads.frame(2, 16);
+        byte[] frameBytes = new byte[frame.remaining()];
+        frame.get(frameBytes);
+        for (int i = 0; i < SYNTHETIC_SAMPLES; i++) {
+            if (i % 2 == 0) {
+                recorder.recordText(PayloadRecorder.TYPE_JSON, json);
+            } else {
+                recorder.record(PayloadRecorder.TYPE_FRAME, frameBytes, 0, frameBytes.length);
+            }
+        }
+        recorder.close();
+        bytes = out.toByteArray();
+    }
+
+    @Benchmark
+    public long decodeRecording() throws IOException {
+        PayloadReader reader = new PayloadReader(new ByteArrayInputStream(bytes));
+        deltaModel.reset();
+        while (reader.next()) {
+            switch (reader.getType()) {
+                case PayloadRecorder.TYPE_FRAME:
+                    binaryDecoder.decode(ByteBuffer.wrap(reader.getData(), 0, reader.getLength()), snapshot);
+                    break;
+                case PayloadRecorder.TYPE_DELTA:
+                    deltaModel.merge(new InputStreamReader(
+                            new ByteArrayInputStream(reader.getData(), 0, reader.getLength()), UTF_8), snapshot);
+                    break;
+                default:
+                    jsonDecoder.decode(new InputStreamReader(
+                            new ByteArrayInputStream(reader.getData(), 0, reader.getLength()), UTF_8), snapshot);
+                    break;
+            }
+        }
+        return reader.getRecordCount();
+    }
+}
@@ -0,0 +1,66 @@
+package com.systeminfo.display.benchmarks;
+
+import com.systeminfo.display.BinarySnapshotDecoder;
+import com.systeminfo.display.DeltaStateModel;
+import com.systeminfo.display.SnapshotDecoder;
+import com.systeminfo.display.SystemSnapshot;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+// Decoding one /system-info sample, as done on the network thread for every poll
+// or streamed message
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SnapshotDecodeBenchmark {
+    @Param({"1", "8"})
+    public int gpus;
+
+    @Param({"8", "64"})
+    public int cores;
+
+    private final SnapshotDecoder jsonDecoder = new SnapshotDecoder();
+    private final BinarySnapshotDecoder binaryDecoder = new BinarySnapshotDecoder();
+    private final DeltaStateModel deltaModel = new DeltaStateModel(jsonDecoder);
+    private final SystemSnapshot snapshot = new SystemSnapshot();
+    private String json;
+    private String fullDelta;
+    private ByteBuffer frame;
+
+    @Setup
+    public void setUp() {
+        json = Payloads.json(gpus, cores);
+        // A full delta-mode message: the same sample behind a sequence header
+        fullDelta = "{\"seq\": 1, \"full\": true, " + json.substring(1);
+        frame = Payloads.frame(gpus, cores);
+    }
+
+    @Benchmark
+    public SystemSnapshot decodeJson() throws IOException {
+        jsonDecoder.decode(new StringReader(json), snapshot);
+        return snapshot;
+    }
+
+    @Benchmark
+    public SystemSnapshot decodeBinary() throws IOException {
+        frame.rewind();
+        binaryDecoder.decode(frame, snapshot);
+        return snapshot;
+    }
+
+    @Benchmark
+    public int mergeFullDelta() throws IOException {
+        deltaModel.reset();
+        return deltaModel.merge(new StringReader(fullDelta), snapshot);
+    }
+}
@@ -0,0 +1,50 @@
+package com.systeminfo.display.benchmarks;
+
+import com.systeminfo.display.ValueFormatter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+// Ring centre text. The String.format variants are the baseline the formatter
+// replaced; compare their gc.alloc.rate.norm against the allocation-free ones.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ValueFormatterBenchmark {
+    private final char[] buffer = new char[64];
+    private float value = 10.5f;
+
+    private float nextValue() {
+        value = value >= 99f ? 0.25f : value + 0.75f;
+        return value;
+    }
+
+    @Benchmark
+    public int gpu() {
+        float v = nextValue();
+        return ValueFormatter.formatGpu(buffer, 0, v / 4f, null, v);
+    }
+
+    @Benchmark
+    public int power() {
+        float v = nextValue();
+        return ValueFormatter.formatPower(buffer, 0, v * 4f, v / 2f);
+    }
+
+    @Benchmark
+    public String gpuStringFormat() {
+        float v = nextValue();
+        return String.format(Locale.US, "%.1f GB • %d%%", v / 4f, (int) v);
+    }
+
+    @Benchmark
+    public String powerStringFormat() {
+        float v = nextValue();
+        return String.format(Locale.US, "%dW\n$%.2f", Math.round(v * 4f), v / 2f);
+    }
+}
@@ -0,0 +1,51 @@
+package com.systeminfo.display.benchmarks;
+
+import com.systeminfo.display.WindowStats;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import java.util.concurrent.TimeUnit;
+
+// Adding a sample to a full rolling window and reading back the four values a
+// ring's ticks show. The cost should not depend on how many samples the window
+// holds.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class WindowStatsBenchmark {
+    private static final long SAMPLE_INTERVAL_MS = 500;
+
+    @Param({"60000", "3600000"}) // 120 and 7200 samples
+    public long windowMs;
+
+    private WindowStats stats;
+    private long timestampMs;
+    private int tick;
+
+    @Setup
+    public void setUp() {
+        stats = new WindowStats(windowMs, (int) (windowMs / SAMPLE_INTERVAL_MS) + 1);
+        timestampMs = 0;
+        for (long t = 0; t < windowMs; t += SAMPLE_INTERVAL_MS) {
+            stats.addSample(nextValue(), timestampMs);
+            timestampMs += SAMPLE_INTERVAL_MS;
+        }
+    }
+
+    private float nextValue() {
+        tick++;
+        return 50f + 45f * (float) Math.sin(tick * 0.05) + (tick * 7919 % 11) - 5f;
+    }
+
+    @Benchmark
+    public float addSampleAndRead() {
+        stats.addSample(nextValue(), timestampMs);
+        timestampMs += SAMPLE_INTERVAL_MS;
+        return stats.getMin() + stats.getMax() + stats.getMean() + stats.getPercentile(95);
+    }
+}
@@ -0,0 +1,52 @@
+package com.systeminfo.display;
+
+// Picks the poll interval from how fast the values are moving: the fastest rate
+// as soon as any metric jumps, stretching gradually towards the slowest rate
+// while everything stays flat, so an idle PC isn't polled twice a second.
+public class AdaptivePollInterval {
+    // Percentage points between samples that count as moving or flat
+    private static final float FAST_CHANGE = 5f;
+    private static final float SLOW_CHANGE = 1f;
+    private static final int STABLE_SAMPLES_TO_SLOW_DOWN = 10;
+
+    private final long minIntervalMs;
+    private final long maxIntervalMs;
+    private long intervalMs;
+    private int stableSamples = 0;
+
+    public AdaptivePollInterval(long minIntervalMs, long maxIntervalMs) {
+        this.minIntervalMs = minIntervalMs;
+        this.maxIntervalMs = maxIntervalMs;
+        this.intervalMs = minIntervalMs;
+    }
+
+    // Feeds the largest change across the aggregate metrics in the latest
+    // sample and returns the interval to use from now on
+    public long onSample(float maxChange) {
+        if (maxChange >= FAST_CHANGE) {
+            stableSamples = 0;
+            intervalMs = minIntervalMs;
+        } else if (maxChange < SLOW_CHANGE) {
+            if (++stableSamples >= STABLE_SAMPLES_TO_SLOW_DOWN) {
+                stableSamples = 0;
+                intervalMs = Math.min(maxIntervalMs, intervalMs * 3 / 2);
+            }
+        } else {
+            stableSamples = 0;
+        }
+        return intervalMs;
+    }
+
+    public long getIntervalMs() {
+        return intervalMs;
+    }
+
+    public long getMaxIntervalMs() {
+        return maxIntervalMs;
+    }
+
+    public void reset() {
+        stableSamples = 0;
+        intervalMs = minIntervalMs;
+    }
+}
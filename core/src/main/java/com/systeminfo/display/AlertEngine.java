@@ -0,0 +1,125 @@
+package com.systeminfo.display;
+
+// Evaluates a fixed set of AlertRules against every decoded sample of one host.
+// Each rule keeps its running state (hold timer, EWMA mean and variance, last
+// value) in primitive arrays indexed by rule, so evaluating a sample is a
+// constant amount of arithmetic per rule: no history is scanned, nothing is
+// allocated and the cost per sample grows only linearly with the rule count.
+// Single-threaded; call from the thread that applies samples.
+public class AlertEngine {
+    public interface Listener {
+        // Called from evaluate() when a rule starts or stops firing
+        void onAlertChanged(int rule, boolean firing, float value);
+    }
+
+    private final AlertRule[] rules;
+    private final Listener listener;
+
+    private final boolean[] firing;
+    // When the condition last started to disagree with firing[], or -1
+    private final long[] pendingSinceMs;
+    private final float[] lastValue;
+    private final long[] lastTimeMs;
+    private final double[] mean;
+    private final double[] variance;
+    private final int[] samples;
+    private int firingCount = 0;
+
+    public AlertEngine(AlertRule[] rules, Listener listener) {
+        this.rules = rules.clone();
+        this.listener = listener;
+        int n = rules.length;
+        firing = new boolean[n];
+        pendingSinceMs = new long[n];
+        lastValue = new float[n];
+        lastTimeMs = new long[n];
+        mean = new double[n];
+        variance = new double[n];
+        samples = new int[n];
+        reset();
+    }
+
+    // Forgets all state, e.g. after a gap in the data; firing alerts clear silently
+    public void reset() {
+        for (int i = 0; i < rules.length; i++) {
+            firing[i] = false;
+            pendingSinceMs[i] = -1;
+            lastValue[i] = Float.NaN;
+            lastTimeMs[i] = -1;
+            mean[i] = 0;
+            variance[i] = 0;
+            samples[i] = 0;
+        }
+        firingCount = 0;
+    }
+
+    public void evaluate(SystemSnapshot snapshot, long nowMs) {
+        for (int i = 0; i < rules.length; i++) {
+            AlertRule rule = rules[i];
+            float value = rule.metric.read(snapshot);
+            if (Float.isNaN(value)) continue; // Not in this sample; keep the state as it was
+            boolean breached = breached(i, rule, value, nowMs);
+            if (breached == firing[i]) {
+                pendingSinceMs[i] = -1;
+                continue;
+            }
+            if (pendingSinceMs[i] < 0) pendingSinceMs[i] = nowMs;
+            if (nowMs - pendingSinceMs[i] < rule.holdMs) continue;
+            pendingSinceMs[i] = -1;
+            firing[i] = breached;
+            firingCount += breached ? 1 : -1;
+            listener.onAlertChanged(i, breached, value);
+        }
+    }
+
+    private boolean breached(int i, AlertRule rule, float value, long nowMs) {
+        switch (rule.kind) {
+            case AlertRule.KIND_ABOVE:
+                return value > rule.limit;
+            case AlertRule.KIND_BELOW:
+                return value < rule.limit;
+            case AlertRule.KIND_DEVIATION: {
+                // Compare against the baseline before this sample, then fold it in
+                double diff = value - mean[i];
+                boolean outlier = samples[i] >= rule.warmupSamples
+                        && Math.abs(diff) > Math.max(rule.limit * Math.sqrt(variance[i]), rule.minDeviation);
+                if (samples[i] == 0) {
+                    mean[i] = value;
+                } else {
+                    mean[i] += rule.alpha * diff;
+                    variance[i] = (1 - rule.alpha) * (variance[i] + rule.alpha * diff * diff);
+                }
+                if (samples[i] < rule.warmupSamples) samples[i]++;
+                return outlier;
+            }
+            case AlertRule.KIND_RATE: {
+                boolean fast = false;
+                if (lastTimeMs[i] >= 0 && nowMs > lastTimeMs[i]) {
+                    float perSecond = (value - lastValue[i]) * 1000f / (nowMs - lastTimeMs[i]);
+                    fast = rule.limit > 0 ? perSecond > rule.limit : perSecond < rule.limit;
+                }
+                lastValue[i] = value;
+                lastTimeMs[i] = nowMs;
+                return fast;
+            }
+            default:
+                return false;
+        }
+    }
+
+    public int getRuleCount() {
+        return rules.length;
+    }
+
+    public AlertRule getRule(int rule) {
+        return rules[rule];
+    }
+
+    public boolean isFiring(int rule) {
+        return firing[rule];
+    }
+
+    public int getFiringCount() {
+        return firingCount;
+    }
+}
@@ -0,0 +1,82 @@
+package com.systeminfo.display;
+
+// One alert condition on a SnapshotMetric. Rules are immutable and hold no
+// state, so the same rules can be handed to one AlertEngine per host.
+//
+//   above / below   the value is past a threshold
+//   deviation       the value is further from its EWMA than a number of EWMA
+//                   standard deviations, i.e. unusual for this machine
+//   rateOfChange    the value rises (positive limit) or falls (negative limit)
+//                   faster than a number of units per second
+//
+// A condition has to hold for holdMs before the alert fires, and has to stay
+// clear for holdMs before it clears, so a single noisy sample changes nothing.
+public class AlertRule {
+    public static final int KIND_ABOVE = 0;
+    public static final int KIND_BELOW = 1;
+    public static final int KIND_DEVIATION = 2;
+    public static final int KIND_RATE = 3;
+
+    final String name;
+    final SnapshotMetric metric;
+    final int kind;
+    final float limit;
+    final long holdMs;
+    // Deviation rules only
+    final float alpha;
+    final float minDeviation;
+    final int warmupSamples;
+
+    private AlertRule(String name, String metricKey, int kind, float limit, long holdMs,
+                      float alpha, float minDeviation) {
+        if (holdMs < 0) {
+            throw new IllegalArgumentException("Hold time must not be negative");
+        }
+        this.name = name;
+        this.metric = new SnapshotMetric(metricKey);
+        this.kind = kind;
+        this.limit = limit;
+        this.holdMs = holdMs;
+        this.alpha = alpha;
+        this.minDeviation = minDeviation;
+        // About the number of samples an EWMA needs to forget its first value
+        this.warmupSamples = alpha > 0 ? (int) Math.ceil(2 / alpha) : 0;
+    }
+
+    public static AlertRule above(String name, String metricKey, float threshold, long holdMs) {
+        return new AlertRule(name, metricKey, KIND_ABOVE, threshold, holdMs, 0f, 0f);
+    }
+
+    public static AlertRule below(String name, String metricKey, float threshold, long holdMs) {
+        return new AlertRule(name, metricKey, KIND_BELOW, threshold, holdMs, 0f, 0f);
+    }
+
+    // alpha is the EWMA weight of each new sample (0..1]. minDeviation keeps a
+    // metric that has sat perfectly still from alerting on its first tiny move.
+    public static AlertRule deviation(String name, String metricKey, float alpha, float deviations,
+                                      float minDeviation, long holdMs) {
+        if (alpha <= 0 || alpha > 1) {
+            throw new IllegalArgumentException("alpha must be in (0, 1]");
+        }
+        return new AlertRule(name, metricKey, KIND_DEVIATION, deviations, holdMs, alpha, minDeviation);
+    }
+
+    public static AlertRule rateOfChange(String name, String metricKey, float unitsPerSecond, long holdMs) {
+        if (unitsPerSecond == 0) {
+            throw new IllegalArgumentException("Rate limit must not be zero");
+        }
+        return new AlertRule(name, metricKey, KIND_RATE, unitsPerSecond, holdMs, 0f, 0f);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public SnapshotMetric getMetric() {
+        return metric;
+    }
+
+    public int getKind() {
+        return kind;
+    }
+}
@@ -0,0 +1,73 @@
+package com.systeminfo.display;
+
+// A float that eases from its current value to a new target over a fixed duration.
+// Time is in System.nanoTime() units, the same clock Choreographer frames use.
+public class AnimatedValue {
+    public static final long DEFAULT_DURATION_MS = 400;
+
+    private final long durationNanos;
+    private float from;
+    private float to;
+    private float current;
+    private long startNanos;
+    private boolean animating = false;
+
+    public AnimatedValue() {
+        this(DEFAULT_DURATION_MS);
+    }
+
+    public AnimatedValue(long durationMs) {
+        this.durationNanos = durationMs * 1000000L;
+    }
+
+    public void setTarget(float target) {
+        animateFrom(current, target);
+    }
+
+    public void animateFrom(float start, float target) {
+        if (start == target || durationNanos <= 0) {
+            snapTo(target);
+            return;
+        }
+        from = start;
+        to = target;
+        current = start;
+        startNanos = System.nanoTime();
+        animating = true;
+    }
+
+    public void snapTo(float value) {
+        from = value;
+        to = value;
+        current = value;
+        animating = false;
+    }
+
+    // Returns true while the value is still moving
+    public boolean update(long frameTimeNanos) {
+        if (!animating) return false;
+        float t = (float) (frameTimeNanos - startNanos) / durationNanos;
+        if (t >= 1f) {
+            current = to;
+            animating = false;
+            return false;
+        }
+        if (t < 0f) t = 0f;
+        // Decelerate so each step lands softly on the new sample
+        float eased = 1f - (1f - t) * (1f - t);
+        current = from + (to - from) * eased;
+        return true;
+    }
+
+    public float get() {
+        return current;
+    }
+
+    public float getTarget() {
+        return to;
+    }
+
+    public boolean isAnimating() {
+        return animating;
+    }
+}
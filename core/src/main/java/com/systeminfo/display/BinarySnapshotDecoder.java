@@ -0,0 +1,135 @@
+package com.systeminfo.display;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+// Decodes the fixed-layout binary /system-info frame. The server only sends it
+// when the request's Accept header asks for FRAME_MEDIA_TYPE, otherwise it
+// answers with JSON, so callers check the response type and fall back to
+// SnapshotDecoder.
+//
+// Frame layout, all values little-endian:
+//   u8 version, u8 flags, u8 gpuCount, u8 reserved
+//   f32 cpuUsage, memoryUsage, totalPower, totalPowerLimit,
+//       totalPowerCostInDollarsPerMonth, totalPowerCostInCentsPerHour
+//   then per GPU:
+//   u8 gpuFlags, 3 reserved bytes
+//   f32 usage, memoryUsed, memoryTotal, memoryPercent, powerDraw, powerLimit
+//   then, when FLAG_CPU_CORES is set:
+//   u16 coreCount, 2 reserved bytes, coreCount x f32 usage
+public class BinarySnapshotDecoder {
+    public static final String FRAME_MEDIA_TYPE = "application/vnd.systeminfo.frame";
+    public static final String ACCEPT_HEADER = FRAME_MEDIA_TYPE + ", application/json;q=0.5";
+    public static final int VERSION = 1;
+
+    static final int FLAG_CPU = 1;
+    static final int FLAG_MEMORY = 1 << 1;
+    static final int FLAG_POWER = 1 << 2;
+    static final int FLAG_POWER_COST = 1 << 3;
+    static final int FLAG_ERROR = 1 << 4;
+    static final int FLAG_CPU_CORES = 1 << 5;
+    static final int GPU_FLAG_USAGE = 1;
+    static final int GPU_FLAG_MEMORY = 1 << 1;
+
+    static final int HEADER_SIZE = 4 + 6 * 4;
+    static final int GPU_SIZE = 4 + 6 * 4;
+    static final int CORES_HEADER_SIZE = 4;
+    static final int MAX_FRAME_CORES = 1024;
+    static final int MAX_FRAME_SIZE = HEADER_SIZE + 255 * GPU_SIZE + CORES_HEADER_SIZE + MAX_FRAME_CORES * 4;
+
+    // One reusable frame buffer per network thread
+    private final ThreadLocal<ByteBuffer> frameBuffer = new ThreadLocal<ByteBuffer>() {
+        @Override
+        protected ByteBuffer initialValue() {
+            return ByteBuffer.allocate(MAX_FRAME_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        }
+    };
+
+    public static boolean isFrameMediaType(String contentType) {
+        return contentType != null && contentType.startsWith(FRAME_MEDIA_TYPE);
+    }
+
+    // Reads a whole frame from the stream into this thread's buffer and decodes it
+    public void decode(InputStream in, SystemSnapshot into) throws IOException {
+        ByteBuffer buffer = frameBuffer.get();
+        byte[] array = buffer.array();
+        int length = 0;
+        int read;
+        while (length < array.length && (read = in.read(array, length, array.length - length)) != -1) {
+            length += read;
+        }
+        if (length == array.length && in.read() != -1) {
+            throw new IOException("Binary frame exceeds " + MAX_FRAME_SIZE + " bytes");
+        }
+        buffer.clear();
+        buffer.limit(length);
+        decode(buffer, into);
+    }
+
+    public void decode(ByteBuffer frame, SystemSnapshot into) throws IOException {
+        into.reset();
+        frame.order(ByteOrder.LITTLE_ENDIAN);
+        if (frame.remaining() < HEADER_SIZE) {
+            throw new IOException("Binary frame too short: " + frame.remaining() + " bytes");
+        }
+        int version = frame.get() & 0xFF;
+        if (version != VERSION) {
+            throw new IOException("Unsupported binary frame version " + version);
+        }
+        int flags = frame.get() & 0xFF;
+        int gpuCount = frame.get() & 0xFF;
+        frame.get(); // reserved
+        if (frame.remaining() < 6 * 4 + gpuCount * GPU_SIZE) {
+            throw new IOException("Binary frame truncated for " + gpuCount + " GPUs");
+        }
+
+        into.cpuUsage = frame.getFloat();
+        into.hasCpuUsage = (flags & FLAG_CPU) != 0;
+        into.memoryUsage = frame.getFloat();
+        into.hasMemoryUsage = (flags & FLAG_MEMORY) != 0;
+        into.totalPower = frame.getFloat();
+        into.totalPowerLimit = frame.getFloat();
+        into.hasPower = (flags & FLAG_POWER) != 0;
+        into.totalPowerCostInDollarsPerMonth = frame.getFloat();
+        into.totalPowerCostInCentsPerHour = frame.getFloat();
+        into.hasPowerCost = (flags & FLAG_POWER_COST) != 0;
+        into.hasError = (flags & FLAG_ERROR) != 0;
+
+        for (int i = 0; i < gpuCount; i++) {
+            if (i >= SystemSnapshot.MAX_GPUS) {
+                frame.position(frame.position() + GPU_SIZE);
+                continue;
+            }
+            int gpuFlags = frame.get() & 0xFF;
+            frame.position(frame.position() + 3); // reserved
+            into.gpuUsage[i] = frame.getFloat();
+            into.hasGpuUsage[i] = (gpuFlags & GPU_FLAG_USAGE) != 0;
+            into.gpuMemoryUsed[i] = frame.getFloat();
+            into.gpuMemoryTotal[i] = frame.getFloat();
+            into.gpuMemoryPercent[i] = frame.getFloat();
+            into.hasGpuMemory[i] = (gpuFlags & GPU_FLAG_MEMORY) != 0;
+            into.gpuPowerDraw[i] = frame.getFloat();
+            into.gpuPowerLimit[i] = frame.getFloat();
+        }
+        into.gpuCount = Math.min(gpuCount, SystemSnapshot.MAX_GPUS);
+
+        if ((flags & FLAG_CPU_CORES) != 0) {
+            if (frame.remaining() < CORES_HEADER_SIZE) {
+                throw new IOException("Binary frame truncated before core count");
+            }
+            int coreCount = frame.getShort() & 0xFFFF;
+            frame.getShort(); // reserved
+            if (frame.remaining() < coreCount * 4) {
+                throw new IOException("Binary frame truncated for " + coreCount + " cores");
+            }
+            int kept = Math.min(coreCount, SystemSnapshot.MAX_CPU_CORES);
+            for (int i = 0; i < kept; i++) {
+                into.coreUsage[i] = frame.getFloat();
+            }
+            frame.position(frame.position() + (coreCount - kept) * 4);
+            into.coreCount = kept;
+        }
+    }
+}
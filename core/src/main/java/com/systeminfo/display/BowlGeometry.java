@@ -0,0 +1,189 @@
+package com.systeminfo.display;
+
+// The math behind the graph "bowl": the area under the utilization line, clipped
+// to the inside of the ring. Everything that depends only on the bounds and the
+// number of points (x positions, the circle's lower edge, the closing arcs) is
+// cached, so a frame with new values only computes y values.
+public class BowlGeometry {
+    public static final int ARC_STEPS = 60;
+
+    private final int maxPoints;
+
+    // Bounds and point count the cache was built for
+    private float geometryLeft = Float.NaN;
+    private float geometryTop = Float.NaN;
+    private float geometryRight = Float.NaN;
+    private float geometryBottom = Float.NaN;
+    private int geometryCount = -1;
+
+    private float cx;
+    private float cy;
+    private float radius;
+    private float graphRadius;
+    private float graphBottom;
+    private float availableHeight;
+    private int validStart;
+    private int validEnd;
+    private final float[] xs;
+    private final float[] circleYs;
+    private final float[] ys;
+    private final boolean[] gaps;
+    // Bottom-arc vertices for each combination of the end points lying above
+    // the centre line: index = (leftAbove ? 2 : 0) + (rightAbove ? 1 : 0)
+    private final float[][] arcXs = new float[4][ARC_STEPS + 1];
+    private final float[][] arcYs = new float[4][ARC_STEPS + 1];
+
+    public BowlGeometry(int maxPoints) {
+        this.maxPoints = maxPoints;
+        xs = new float[maxPoints];
+        circleYs = new float[maxPoints];
+        ys = new float[maxPoints];
+        gaps = new boolean[maxPoints];
+    }
+
+    // Rebuilds the cache only if the bounds or point count changed
+    public void update(float left, float top, float right, float bottom, int count) {
+        if (left != geometryLeft || top != geometryTop
+                || right != geometryRight || bottom != geometryBottom
+                || count != geometryCount) {
+            build(left, top, right, bottom, Math.min(count, maxPoints));
+        }
+    }
+
+    // Point count of the last update, or -1 before the first
+    public int getCount() {
+        return geometryCount;
+    }
+
+    // True when there are at least two points inside the circle to draw
+    public boolean hasBowl() {
+        return geometryCount >= 2 && validStart != -1 && validEnd != -1 && validEnd - validStart >= 1;
+    }
+
+    // Maps utilization values (0-100) to y positions, clamped to the circle's lower
+    // edge. A NaN value is a gap: its y is the lower edge, so the bowl has no area
+    // there, and isGap() tells the line to break.
+    public void computeYs(float[] values, int count) {
+        for (int i = 0; i < count; i++) {
+            float util = values[i];
+            gaps[i] = Float.isNaN(util);
+            if (gaps[i]) {
+                ys[i] = circleYs[i];
+                continue;
+            }
+            if (util < 0f) util = 0f;
+            if (util > 100f) util = 100f;
+            float unclampedY = graphBottom - (util / 100f) * availableHeight;
+            // Clamp y so it never goes below the circle's bottom edge
+            ys[i] = Math.min(unclampedY, circleYs[i]);
+        }
+    }
+
+    // Which closing arc to use for the current ys; see arcXs
+    public int arcIndex() {
+        return (ys[validStart] < cy ? 2 : 0) + (ys[validEnd] < cy ? 1 : 0);
+    }
+
+    public float getCenterX() {
+        return cx;
+    }
+
+    public float getCenterY() {
+        return cy;
+    }
+
+    public float getRadius() {
+        return radius;
+    }
+
+    public float getGraphRadius() {
+        return graphRadius;
+    }
+
+    public int getValidStart() {
+        return validStart;
+    }
+
+    public int getValidEnd() {
+        return validEnd;
+    }
+
+    public float getX(int i) {
+        return xs[i];
+    }
+
+    public float getY(int i) {
+        return ys[i];
+    }
+
+    public boolean isGap(int i) {
+        return gaps[i];
+    }
+
+    public float[] getArcXs(int arc) {
+        return arcXs[arc];
+    }
+
+    public float[] getArcYs(int arc) {
+        return arcYs[arc];
+    }
+
+    private void build(float left, float top, float right, float bottom, int count) {
+        geometryLeft = left;
+        geometryTop = top;
+        geometryRight = right;
+        geometryBottom = bottom;
+        geometryCount = count;
+
+        cx = (left + right) / 2f;
+        cy = (top + bottom) / 2f;
+        radius = ((right - left) / 2f);
+
+        float margin = radius * 0.03f; // Reduced margin for tighter fit
+        graphRadius = radius - margin;
+        float graphLeft = cx - graphRadius;
+        float graphRight = cx + graphRadius;
+        graphBottom = cy + graphRadius;
+        float graphTop = cy - graphRadius;
+        float graphWidth = graphRight - graphLeft;
+        availableHeight = graphBottom - graphTop;
+
+        validStart = -1;
+        validEnd = -1;
+        if (count < 2) return;
+        float step = graphWidth / (count - 1);
+
+        // Only sample points within the circle
+        for (int i = 0; i < count; i++) {
+            xs[i] = graphLeft + i * step;
+            float relX = (xs[i] - cx) / graphRadius;
+            if (Math.abs(relX) <= 1f) {
+                if (validStart == -1) validStart = i;
+                validEnd = i;
+            }
+            float relXForClamp = Math.max(-1f, Math.min(1f, relX));
+            circleYs[i] = cy + graphRadius * (float)Math.sqrt(1 - relXForClamp * relXForClamp);
+        }
+        if (validStart == -1 || validEnd == -1 || validEnd - validStart < 1) return;
+
+        float leftRelX = Math.max(-1f, Math.min(1f, (xs[validStart] - cx) / graphRadius));
+        float rightRelX = Math.max(-1f, Math.min(1f, (xs[validEnd] - cx) / graphRadius));
+        float leftBelow = (float)Math.acos(leftRelX);
+        float rightBelow = (float)Math.acos(rightRelX);
+        float leftAbove = (float)(2 * Math.PI - leftBelow);
+        float rightAbove = (float)(2 * Math.PI - rightBelow);
+        buildArc(0, leftBelow, rightBelow);
+        buildArc(1, leftBelow, rightAbove);
+        buildArc(2, leftAbove, rightBelow);
+        buildArc(3, leftAbove, rightAbove);
+    }
+
+    private void buildArc(int arc, float leftAngle, float rightAngle) {
+        for (int i = 0; i <= ARC_STEPS; i++) {
+            float t = (float)i / ARC_STEPS;
+            float angle = leftAngle + t * (rightAngle - leftAngle);
+            arcXs[arc][i] = cx + graphRadius * (float)Math.cos(angle);
+            arcYs[arc][i] = cy + graphRadius * (float)Math.sin(angle);
+        }
+    }
+}
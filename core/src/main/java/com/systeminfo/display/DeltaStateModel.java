@@ -0,0 +1,78 @@
+package com.systeminfo.display;
+
+import java.io.IOException;
+import java.io.Reader;
+
+// Client-side copy of the server's latest sample for delta mode. Each delta is
+// merged into the state only if its base sequence matches the last sequence we
+// applied; anything else means a sample was lost, so the state is discarded and
+// a full resync is needed.
+public class DeltaStateModel {
+    public static final int APPLIED = 0;
+    public static final int UNCHANGED = 1;   // Same sequence as the last applied sample
+    public static final int NEEDS_RESYNC = 2;
+    public static final int AWAITING_FULL = 3;
+
+    private final SnapshotDecoder decoder;
+    private final SystemSnapshot state = new SystemSnapshot();
+    private final SystemSnapshot scratch = new SystemSnapshot();
+    private final SnapshotDecoder.DeltaHeader header = new SnapshotDecoder.DeltaHeader();
+    private long lastSequence = 0;
+    private boolean synced = false;
+    private long missedSamples = 0;
+    private long resyncCount = 0;
+
+    public DeltaStateModel(SnapshotDecoder decoder) {
+        this.decoder = decoder;
+    }
+
+    // Merges one delta-mode message. On APPLIED the merged state is copied into out.
+    public synchronized int merge(Reader source, SystemSnapshot out) throws IOException {
+        // Decode into a scratch copy so a rejected delta never touches the state
+        scratch.copyFrom(state);
+        decoder.decodeDelta(source, scratch, header);
+
+        if (!header.full) {
+            if (!synced) {
+                return AWAITING_FULL;
+            }
+            if (header.baseSequence != lastSequence) {
+                synced = false;
+                resyncCount++;
+                return NEEDS_RESYNC;
+            }
+        }
+        if (synced && header.sequence == lastSequence) {
+            return UNCHANGED;
+        }
+        if (synced && header.sequence > lastSequence + 1) {
+            missedSamples += header.sequence - lastSequence - 1;
+        }
+
+        scratch.sequence = header.sequence;
+        state.copyFrom(scratch);
+        lastSequence = header.sequence;
+        synced = true;
+        out.copyFrom(state);
+        return APPLIED;
+    }
+
+    public synchronized void reset() {
+        synced = false;
+        lastSequence = 0;
+        state.reset();
+    }
+
+    // Sequence to ask the server for a delta against, or 0 to request a full sample
+    public synchronized long getLastSequence() {
+        return synced ? lastSequence : 0;
+    }
+
+    public synchronized long getMissedSamples() {
+        return missedSamples;
+    }
+
+    public synchronized long getResyncCount() {
+        return resyncCount;
+    }
+}
@@ -0,0 +1,133 @@
+package com.systeminfo.display;
+
+// The samples behind one utilization graph: a raw ring of the last 30 seconds
+// plus 10 s and 1 min tiers for the longer ranges. Everything is preallocated;
+// adding a sample and reading the points for a range never allocate.
+public class GraphSeries {
+    // Selectable time ranges; each one reads from a different history tier
+    public static final int RANGE_30_SECONDS = 0;
+    public static final int RANGE_10_MINUTES = 1;
+    public static final int RANGE_24_HOURS = 2;
+    public static final int RANGE_COUNT = 3;
+
+    public static final int HISTORY_SIZE = 60; // Raw tier: 30 s at the 500 ms poll rate
+    // Long ranges are averaged down to at most this many points
+    public static final int MAX_POINTS = 120;
+
+    private final float[] utilizationHistory = new float[HISTORY_SIZE];
+    private int historyIndex = 0;
+    private boolean historyInitialized = false;
+    // The newest point eases from the previous sample to the new one
+    private final AnimatedValue newestValue = new AnimatedValue();
+    // Number of trailing samples equal to the newest one; once it covers the whole
+    // history, adding the same value again doesn't change what is drawn
+    private int identicalRun = 0;
+
+    // Coarser tiers fed from every raw sample: 60 x 10 s covers 10 minutes and
+    // 1440 x 1 min covers 24 hours, both preallocated
+    private final HistoryTier tenSecondTier = new HistoryTier(10000, 60);
+    private final HistoryTier minuteTier = new HistoryTier(60000, 1440);
+    private int range = RANGE_30_SECONDS;
+
+    // Returns true if the graph looks different afterwards
+    public boolean addSample(float utilization, long timestampMs) {
+        tenSecondTier.add(utilization, timestampMs);
+        minuteTier.add(utilization, timestampMs);
+        boolean wasFlat = historyInitialized && identicalRun >= HISTORY_SIZE;
+        boolean same = false;
+        if (historyInitialized || historyIndex > 0) {
+            int newest = (historyIndex + HISTORY_SIZE - 1) % HISTORY_SIZE;
+            same = utilizationHistory[newest] == utilization;
+            newestValue.animateFrom(utilizationHistory[newest], utilization);
+        } else {
+            newestValue.snapTo(utilization);
+        }
+        identicalRun = same ? identicalRun + 1 : 1;
+        utilizationHistory[historyIndex] = utilization;
+        historyIndex = (historyIndex + 1) % HISTORY_SIZE;
+        if (!historyInitialized && historyIndex == 0) historyInitialized = true;
+        // The open bucket of a long range moves with every sample
+        return range != RANGE_30_SECONDS || !(wasFlat && same);
+    }
+
+    public int getRange() {
+        return range;
+    }
+
+    public void setRange(int range) {
+        this.range = range;
+    }
+
+    // Fills values (at least MAX_POINTS long) with the points for the current
+    // range, oldest first, and returns how many there are. A point whose buckets
+    // all had no samples, e.g. while fetching was paused, is NaN.
+    public int loadValues(float[] values) {
+        if (range == RANGE_30_SECONDS) {
+            int count = historyInitialized ? HISTORY_SIZE : historyIndex;
+            for (int i = 0; i < count; i++) {
+                values[i] = i == count - 1
+                        ? newestValue.get()
+                        : utilizationHistory[(historyIndex + i) % HISTORY_SIZE];
+            }
+            return count;
+        }
+        HistoryTier tier = range == RANGE_10_MINUTES ? tenSecondTier : minuteTier;
+        // Group whole buckets so the points always line up with the same time spans
+        int group = (tier.getCapacity() + MAX_POINTS - 1) / MAX_POINTS;
+        int size = tier.size();
+        int count = (size + group - 1) / group;
+        int first = size - count * group; // May be negative for a partly filled oldest group
+        for (int p = 0; p < count; p++) {
+            float sum = 0f;
+            int samples = 0;
+            for (int b = Math.max(0, first + p * group); b < first + (p + 1) * group; b++) {
+                int n = tier.getCount(b);
+                sum += tier.getAverage(b) * n;
+                samples += n;
+            }
+            values[p] = samples > 0 ? sum / samples : Float.NaN;
+        }
+        return count;
+    }
+
+    // Takes over another series' samples and tiers, e.g. history built on a
+    // background thread. The range stays as it was and the newest point snaps
+    // to the copied value without animating.
+    public void copyFrom(GraphSeries other) {
+        System.arraycopy(other.utilizationHistory, 0, utilizationHistory, 0, HISTORY_SIZE);
+        historyIndex = other.historyIndex;
+        historyInitialized = other.historyInitialized;
+        identicalRun = other.identicalRun;
+        tenSecondTier.copyFrom(other.tenSecondTier);
+        minuteTier.copyFrom(other.minuteTier);
+        if (historyInitialized || historyIndex > 0) {
+            newestValue.snapTo(utilizationHistory[(historyIndex + HISTORY_SIZE - 1) % HISTORY_SIZE]);
+        }
+    }
+
+    // Forgets every sample, e.g. before history is loaded; the range stays as it was
+    public void clear() {
+        historyIndex = 0;
+        historyInitialized = false;
+        identicalRun = 0;
+        tenSecondTier.clear();
+        minuteTier.clear();
+    }
+
+    // Returns true while the newest point is still moving
+    public boolean stepAnimation(long frameTimeNanos) {
+        return newestValue.update(frameTimeNanos);
+    }
+
+    public void initializeWithValue(float value) {
+        if (!historyInitialized && historyIndex == 0) {
+            for (int i = 0; i < HISTORY_SIZE; i++) {
+                utilizationHistory[i] = value;
+            }
+            newestValue.snapTo(value);
+            identicalRun = HISTORY_SIZE;
+            historyIndex = 1;
+            historyInitialized = true;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.systeminfo.display;
+
+// Fixed-capacity ring of time buckets, each holding the min, max and average of
+// the samples that fell into it. All storage is preallocated primitive arrays, so
+// memory stays constant no matter how long the app runs. Buckets with no samples
+// (for example while fetching was paused) are kept as empty gaps so the time
+// axis stays true.
+public class HistoryTier {
+    private final long bucketMs;
+    private final int capacity;
+    private final float[] min;
+    private final float[] max;
+    private final float[] sum;
+    private final int[] count;
+    private int head = 0; // Slot the next closed bucket goes into
+    private int size = 0;
+
+    // Bucket still collecting samples
+    private long openBucket = -1;
+    private float openMin;
+    private float openMax;
+    private float openSum;
+    private int openCount = 0;
+
+    public HistoryTier(long bucketMs, int capacity) {
+        this.bucketMs = bucketMs;
+        this.capacity = capacity;
+        this.min = new float[capacity];
+        this.max = new float[capacity];
+        this.sum = new float[capacity];
+        this.count = new int[capacity];
+    }
+
+    public void add(float value, long timestampMs) {
+        long bucket = timestampMs / bucketMs;
+        if (openBucket < 0) {
+            openBucket = bucket;
+        } else if (bucket > openBucket) {
+            closeOpenBucket();
+            // Record skipped buckets as gaps, but never more than the ring can show
+            long gaps = Math.min(bucket - openBucket - 1, capacity);
+            for (long i = 0; i < gaps; i++) {
+                push(0f, 0f, 0f, 0);
+            }
+            openBucket = bucket;
+        }
+        // A clock that steps backwards just keeps filling the open bucket
+        if (openCount == 0) {
+            openMin = value;
+            openMax = value;
+            openSum = 0f;
+        } else {
+            if (value < openMin) openMin = value;
+            if (value > openMax) openMax = value;
+        }
+        openSum += value;
+        openCount++;
+    }
+
+    private void closeOpenBucket() {
+        push(openMin, openMax, openSum, openCount);
+        openCount = 0;
+    }
+
+    private void push(float bucketMin, float bucketMax, float bucketSum, int bucketCount) {
+        min[head] = bucketMin;
+        max[head] = bucketMax;
+        sum[head] = bucketSum;
+        count[head] = bucketCount;
+        head = (head + 1) % capacity;
+        if (size < capacity) size++;
+    }
+
+    public void clear() {
+        head = 0;
+        size = 0;
+        openBucket = -1;
+        openCount = 0;
+    }
+
+    // Becomes a copy of other, which must have the same bucket size and capacity
+    public void copyFrom(HistoryTier other) {
+        if (other.bucketMs != bucketMs || other.capacity != capacity) {
+            throw new IllegalArgumentException("Tiers differ in bucket size or capacity");
+        }
+        System.arraycopy(other.min, 0, min, 0, capacity);
+        System.arraycopy(other.max, 0, max, 0, capacity);
+        System.arraycopy(other.sum, 0, sum, 0, capacity);
+        System.arraycopy(other.count, 0, count, 0, capacity);
+        head = other.head;
+        size = other.size;
+        openBucket = other.openBucket;
+        openMin = other.openMin;
+        openMax = other.openMax;
+        openSum = other.openSum;
+        openCount = other.openCount;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public long getBucketMs() {
+        return bucketMs;
+    }
+
+    // Number of readable buckets, oldest first, including the open one once it has data.
+    // The open bucket replaces the oldest closed bucket when the ring is full.
+    public int size() {
+        return openCount > 0 ? Math.min(size + 1, capacity) : size;
+    }
+
+    public float getAverage(int index) {
+        int slot = slot(index);
+        if (slot < 0) return openSum / openCount;
+        return count[slot] > 0 ? sum[slot] / count[slot] : 0f;
+    }
+
+    public float getMin(int index) {
+        int slot = slot(index);
+        if (slot < 0) return openMin;
+        return count[slot] > 0 ? min[slot] : 0f;
+    }
+
+    public float getMax(int index) {
+        int slot = slot(index);
+        if (slot < 0) return openMax;
+        return count[slot] > 0 ? max[slot] : 0f;
+    }
+
+    public int getCount(int index) {
+        int slot = slot(index);
+        return slot < 0 ? openCount : count[slot];
+    }
+
+    // Ring slot for a readable index, or -1 for the open bucket
+    private int slot(int index) {
+        int readable = size();
+        if (openCount > 0 && index == readable - 1) return -1;
+        int closedShown = openCount > 0 ? readable - 1 : readable;
+        int oldest = (head - closedShown + capacity) % capacity;
+        return (oldest + index) % capacity;
+    }
+}
@@ -0,0 +1,124 @@
+package com.systeminfo.display;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Locale;
+
+// Where every stage of a sample's trip spends its time, so a stale ring can be
+// pinned on the network, parsing, the main-thread queue or drawing:
+//
+//   rtt          request sent -> response headers (polling only)
+//   parse        decode of one payload, JSON or binary
+//   queue        decoded on a network thread -> picked up on the main thread
+//   draw.<view>  one onDraw pass of that view
+//   age          decoded -> end of the first onDraw that shows it
+//
+// All histograms are allocated up front; recording never allocates or locks.
+public class Instrumentation {
+    private static final int MAX_VIEWS = 8;
+    private static Instrumentation instance;
+
+    public final LatencyHistogram rtt = new LatencyHistogram("rtt");
+    public final LatencyHistogram parse = new LatencyHistogram("parse");
+    public final LatencyHistogram queueDelay = new LatencyHistogram("queue");
+    public final LatencyHistogram sampleAge = new LatencyHistogram("age");
+
+    private final LatencyHistogram[] drawHistograms = new LatencyHistogram[MAX_VIEWS];
+    private int drawCount = 0;
+    private final long startedAtMs = System.currentTimeMillis();
+
+    public static synchronized Instrumentation getInstance() {
+        if (instance == null) {
+            instance = new Instrumentation();
+        }
+        return instance;
+    }
+
+    private Instrumentation() {
+    }
+
+    // Main thread; call once per view, typically from its constructor
+    public LatencyHistogram drawHistogram(String viewName) {
+        for (int i = 0; i < drawCount; i++) {
+            if (drawHistograms[i].getName().equals("draw." + viewName)) return drawHistograms[i];
+        }
+        if (drawCount == MAX_VIEWS) {
+            throw new IllegalStateException("Too many instrumented views");
+        }
+        LatencyHistogram histogram = new LatencyHistogram("draw." + viewName);
+        drawHistograms[drawCount++] = histogram;
+        return histogram;
+    }
+
+    public void reset() {
+        rtt.reset();
+        parse.reset();
+        queueDelay.reset();
+        sampleAge.reset();
+        for (int i = 0; i < drawCount; i++) {
+            drawHistograms[i].reset();
+        }
+    }
+
+    // Compact per-histogram line for the on-screen HUD, in milliseconds
+    public void appendSummary(StringBuilder out) {
+        appendSummary(out, rtt);
+        appendSummary(out, parse);
+        appendSummary(out, queueDelay);
+        for (int i = 0; i < drawCount; i++) {
+            appendSummary(out, drawHistograms[i]);
+        }
+        appendSummary(out, sampleAge);
+    }
+
+    private static void appendSummary(StringBuilder out, LatencyHistogram histogram) {
+        out.append(String.format(Locale.US, "%-14s p50 %7.2f  p99 %7.2f  max %7.2f  n %d%n",
+                histogram.getName(),
+                histogram.getPercentileMicros(50) / 1000f,
+                histogram.getPercentileMicros(99) / 1000f,
+                histogram.getMaxMicros() / 1000f,
+                histogram.getCount()));
+    }
+
+    // Tab-separated dump for scripts: a percentile table, then every non-empty
+    // bucket so the full distribution can be re-plotted. Values in microseconds.
+    public void dump(Writer out) throws IOException {
+        out.write("# system-info latency dump, started " + startedAtMs
+                + ", dumped " + System.currentTimeMillis() + "\n");
+        out.write("name\tcount\tmean\tp50\tp90\tp99\tp99.9\tmax\n");
+        dumpSummary(out, rtt);
+        dumpSummary(out, parse);
+        dumpSummary(out, queueDelay);
+        for (int i = 0; i < drawCount; i++) {
+            dumpSummary(out, drawHistograms[i]);
+        }
+        dumpSummary(out, sampleAge);
+        out.write("\nname\tbucket_upper\tcount\n");
+        dumpBuckets(out, rtt);
+        dumpBuckets(out, parse);
+        dumpBuckets(out, queueDelay);
+        for (int i = 0; i < drawCount; i++) {
+            dumpBuckets(out, drawHistograms[i]);
+        }
+        dumpBuckets(out, sampleAge);
+    }
+
+    private static void dumpSummary(Writer out, LatencyHistogram histogram) throws IOException {
+        out.write(histogram.getName() + "\t" + histogram.getCount()
+                + "\t" + histogram.getMeanMicros()
+                + "\t" + histogram.getPercentileMicros(50)
+                + "\t" + histogram.getPercentileMicros(90)
+                + "\t" + histogram.getPercentileMicros(99)
+                + "\t" + histogram.getPercentileMicros(99.9)
+                + "\t" + histogram.getMaxMicros() + "\n");
+    }
+
+    private static void dumpBuckets(Writer out, LatencyHistogram histogram) throws IOException {
+        for (int i = 0; i < LatencyHistogram.BUCKET_COUNT; i++) {
+            long count = histogram.getBucketCount(i);
+            if (count > 0) {
+                out.write(histogram.getName() + "\t" + LatencyHistogram.bucketUpperMicros(i) + "\t" + count + "\n");
+            }
+        }
+    }
+}
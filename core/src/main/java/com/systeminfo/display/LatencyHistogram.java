@@ -0,0 +1,105 @@
+package com.systeminfo.display;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Fixed-memory latency histogram in the style of HdrHistogram: values in
+// microseconds land in log-linear buckets, 32 per power of two, so every
+// recorded value is kept to within about 3% from 1 us up to about 68 s while
+// the whole histogram is one 8 KB array. Recording is a couple of atomic
+// increments and never allocates, so it is safe on any thread and in onDraw.
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    // Values at or above 2^36 us are clamped into the last bucket
+    private static final int MAX_MAGNITUDE = 35;
+    static final int BUCKET_COUNT = SUB_BUCKETS + (MAX_MAGNITUDE - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final String name;
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong totalCount = new AtomicLong();
+    private final AtomicLong totalMicros = new AtomicLong();
+    private final AtomicLong maxMicros = new AtomicLong();
+
+    public LatencyHistogram(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void recordNanos(long nanos) {
+        recordMicros(nanos / 1000);
+    }
+
+    public void recordMicros(long micros) {
+        if (micros < 0) micros = 0;
+        counts.incrementAndGet(bucketIndex(micros));
+        totalCount.incrementAndGet();
+        totalMicros.addAndGet(micros);
+        long max = maxMicros.get();
+        while (micros > max && !maxMicros.compareAndSet(max, micros)) {
+            max = maxMicros.get();
+        }
+    }
+
+    public long getCount() {
+        return totalCount.get();
+    }
+
+    public long getMaxMicros() {
+        return maxMicros.get();
+    }
+
+    public long getMeanMicros() {
+        long count = totalCount.get();
+        return count > 0 ? totalMicros.get() / count : 0;
+    }
+
+    // Upper bound of the bucket holding the given percentile (0-100), or 0 when empty.
+    // Concurrent recording may skew a read slightly; it never blocks writers.
+    public long getPercentileMicros(double percentile) {
+        long count = totalCount.get();
+        if (count == 0) return 0;
+        long target = Math.max(1, (long) Math.ceil(count * percentile / 100.0));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts.get(i);
+            if (seen >= target) {
+                return Math.min(bucketUpperMicros(i), maxMicros.get());
+            }
+        }
+        return maxMicros.get();
+    }
+
+    public long getBucketCount(int bucket) {
+        return counts.get(bucket);
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts.set(i, 0);
+        }
+        totalCount.set(0);
+        totalMicros.set(0);
+        maxMicros.set(0);
+    }
+
+    static int bucketIndex(long micros) {
+        if (micros < SUB_BUCKETS) return (int) micros;
+        int magnitude = 63 - Long.numberOfLeadingZeros(micros);
+        if (magnitude > MAX_MAGNITUDE) return BUCKET_COUNT - 1;
+        int shift = magnitude - SUB_BUCKET_BITS;
+        int sub = (int) (micros >>> shift) - SUB_BUCKETS;
+        return SUB_BUCKETS + shift * SUB_BUCKETS + sub;
+    }
+
+    // Largest value that maps to the bucket
+    static long bucketUpperMicros(int bucket) {
+        if (bucket < SUB_BUCKETS) return bucket;
+        int shift = (bucket - SUB_BUCKETS) / SUB_BUCKETS;
+        int sub = (bucket - SUB_BUCKETS) % SUB_BUCKETS;
+        return ((long) (SUB_BUCKETS + sub + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,159 @@
+package com.systeminfo.display;
+
+// Assigns a small integer id to every ring metric the server reports: total CPU,
+// memory, each GPU and each CPU core. Metrics are discovered from whatever each
+// decoded sample contains, so a host with 8 GPUs and 64 cores gets 74 tiles
+// without any layout changes. After registration a metric's value lives in
+// primitive arrays indexed by its id; per-sample updates are array stores only,
+// with no maps or string keys. Main thread only.
+public class MetricRegistry {
+    public static final int KIND_CPU = 0;
+    public static final int KIND_MEMORY = 1;
+    public static final int KIND_GPU = 2;
+    public static final int KIND_CPU_CORE = 3;
+
+    public static final int MAX_METRICS = 2 + SystemSnapshot.MAX_GPUS + SystemSnapshot.MAX_CPU_CORES;
+
+    public interface Listener {
+        // Called from update() the first time a metric appears, before its value is set
+        void onMetricAdded(int id);
+    }
+
+    private final Listener listener;
+    private int count = 0;
+
+    // Per-id description, fixed at registration
+    private final int[] kinds = new int[MAX_METRICS];
+    private final int[] indexes = new int[MAX_METRICS];
+    private final String[] labels = new String[MAX_METRICS];
+
+    // Per-id values from the latest sample; memory fields are NaN except for GPUs
+    private final boolean[] present = new boolean[MAX_METRICS];
+    private final float[] values = new float[MAX_METRICS];
+    private final float[] memoryUsed = new float[MAX_METRICS];
+    private final float[] memoryPercent = new float[MAX_METRICS];
+    // Largest value change between the last two samples of any metric except the
+    // per-core ones, which on a many-core host always have one core jittering
+    private float aggregateMaxChange = 0f;
+
+    // Payload position -> id, -1 until the metric has been seen
+    private int cpuId = -1;
+    private int memoryId = -1;
+    private final int[] gpuIds = new int[SystemSnapshot.MAX_GPUS];
+    private final int[] coreIds = new int[SystemSnapshot.MAX_CPU_CORES];
+
+    public MetricRegistry(Listener listener) {
+        this.listener = listener;
+        for (int i = 0; i < gpuIds.length; i++) gpuIds[i] = -1;
+        for (int i = 0; i < coreIds.length; i++) coreIds[i] = -1;
+    }
+
+    // Copies one sample into the value arrays, registering any metric seen for the first time
+    public void update(SystemSnapshot data) {
+        for (int id = 0; id < count; id++) {
+            present[id] = false;
+        }
+        aggregateMaxChange = 0f;
+        if (data.hasCpuUsage) {
+            if (cpuId < 0) cpuId = register(KIND_CPU, 0, "CPU");
+            set(cpuId, data.cpuUsage, Float.NaN, Float.NaN);
+        }
+        if (data.hasMemoryUsage) {
+            if (memoryId < 0) memoryId = register(KIND_MEMORY, 0, "Mem");
+            set(memoryId, data.memoryUsage, Float.NaN, Float.NaN);
+        }
+        for (int i = 0; i < data.gpuCount; i++) {
+            if (!data.hasGpuUsage[i]) continue;
+            if (gpuIds[i] < 0) gpuIds[i] = register(KIND_GPU, i, "GPU " + (i + 1));
+            if (data.hasGpuMemory[i]) {
+                set(gpuIds[i], data.gpuUsage[i], data.gpuMemoryUsed[i], data.gpuMemoryPercent[i]);
+            } else {
+                set(gpuIds[i], data.gpuUsage[i], Float.NaN, Float.NaN);
+            }
+        }
+        for (int i = 0; i < data.coreCount; i++) {
+            if (Float.isNaN(data.coreUsage[i])) continue;
+            if (coreIds[i] < 0) coreIds[i] = register(KIND_CPU_CORE, i, "Core " + i);
+            set(coreIds[i], data.coreUsage[i], Float.NaN, Float.NaN);
+        }
+    }
+
+    private int register(int kind, int index, String label) {
+        int id = count++;
+        values[id] = Float.NaN; // No previous value to measure a change from
+        kinds[id] = kind;
+        indexes[id] = index;
+        labels[id] = label;
+        if (listener != null) {
+            listener.onMetricAdded(id);
+        }
+        return id;
+    }
+
+    private void set(int id, float value, float used, float percent) {
+        if (!Float.isNaN(values[id]) && kinds[id] != KIND_CPU_CORE) {
+            float change = Math.abs(value - values[id]);
+            if (change > aggregateMaxChange) aggregateMaxChange = change;
+        }
+        present[id] = true;
+        values[id] = value;
+        memoryUsed[id] = used;
+        memoryPercent[id] = percent;
+    }
+
+    // Total CPU, memory and GPUs only
+    public float getAggregateMaxChange() {
+        return aggregateMaxChange;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public int getKind(int id) {
+        return kinds[id];
+    }
+
+    // GPU or core number within its kind, zero-based
+    public int getIndex(int id) {
+        return indexes[id];
+    }
+
+    public String getLabel(int id) {
+        return labels[id];
+    }
+
+    // False when the latest sample didn't include this metric
+    public boolean isPresent(int id) {
+        return present[id];
+    }
+
+    public float getValue(int id) {
+        return values[id];
+    }
+
+    public float getMemoryUsed(int id) {
+        return memoryUsed[id];
+    }
+
+    public float getMemoryPercent(int id) {
+        return memoryPercent[id];
+    }
+
+    // Id for a payload position, or -1 if it hasn't been seen yet
+    public int getCpuId() {
+        return cpuId;
+    }
+
+    public int getMemoryId() {
+        return memoryId;
+    }
+
+    public int getGpuId(int gpu) {
+        return gpuIds[gpu];
+    }
+
+    public int getCoreId(int core) {
+        return coreIds[core];
+    }
+}
@@ -0,0 +1,98 @@
+package com.systeminfo.display;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+// Reads a PayloadRecorder file one record at a time. The payload buffer is
+// reused and only grows, so iterating a recording allocates nothing once the
+// largest payload has been seen.
+public class PayloadReader implements Closeable {
+    private static final int MAX_PAYLOAD_BYTES = 16 * 1024 * 1024;
+
+    private final InputStream in;
+    private byte[] buffer = new byte[4096];
+    private int type;
+    private int length;
+    private long timeMicros = 0;
+    private long recordCount = 0;
+
+    public PayloadReader(InputStream in) throws IOException {
+        this.in = new BufferedInputStream(in);
+        for (int i = 0; i < PayloadRecorder.MAGIC.length; i++) {
+            if (this.in.read() != PayloadRecorder.MAGIC[i]) {
+                throw new IOException("Not a payload recording");
+            }
+        }
+        int version = this.in.read();
+        if (version != PayloadRecorder.VERSION) {
+            throw new IOException("Unsupported recording version " + version);
+        }
+    }
+
+    // Advances to the next record; false at the end of the recording
+    public boolean next() throws IOException {
+        int nextType = in.read();
+        if (nextType < 0) return false;
+        long deltaMicros = readVarint();
+        long nextLength = readVarint();
+        if (nextLength > MAX_PAYLOAD_BYTES) {
+            throw new IOException("Payload of " + nextLength + " bytes");
+        }
+        length = (int) nextLength;
+        if (buffer.length < length) {
+            buffer = new byte[Math.max(length, buffer.length * 2)];
+        }
+        int read = 0;
+        while (read < length) {
+            int count = in.read(buffer, read, length - read);
+            if (count < 0) throw new EOFException("Truncated payload");
+            read += count;
+        }
+        type = nextType;
+        timeMicros += deltaMicros;
+        recordCount++;
+        return true;
+    }
+
+    // One of the PayloadRecorder TYPE_ constants
+    public int getType() {
+        return type;
+    }
+
+    // Valid up to getLength(), until the next call to next()
+    public byte[] getData() {
+        return buffer;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    // When the current payload arrived, relative to the first one
+    public long getTimeMicros() {
+        return timeMicros;
+    }
+
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private long readVarint() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.read();
+            if (b < 0) throw new EOFException("Truncated record header");
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new IOException("Malformed varint");
+    }
+}
@@ -0,0 +1,80 @@
+package com.systeminfo.display;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+
+// Captures raw server payloads exactly as they arrived, with their arrival
+// times, so a session can be replayed through PayloadReplay later. The file is
+// a 5-byte header ("SIRP" and a version) followed by one record per payload:
+//
+//   type         1 byte: TYPE_JSON, TYPE_DELTA or TYPE_FRAME
+//   time delta   varint, microseconds since the previous record
+//   length       varint, bytes of payload
+//   payload      the HTTP body, stream message or binary frame as received
+//
+// A typical JSON sample costs its own size plus three or four bytes.
+public class PayloadRecorder implements Closeable {
+    static final byte[] MAGIC = {'S', 'I', 'R', 'P'};
+    static final int VERSION = 1;
+
+    // A complete sample as decoded by SnapshotDecoder
+    public static final int TYPE_JSON = 1;
+    // A delta-mode message, full or partial, as merged by DeltaStateModel
+    public static final int TYPE_DELTA = 2;
+    // A binary frame as decoded by BinarySnapshotDecoder
+    public static final int TYPE_FRAME = 3;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final OutputStream out;
+    private long lastNanos = 0;
+    private long recordCount = 0;
+
+    public PayloadRecorder(OutputStream out) throws IOException {
+        this.out = new BufferedOutputStream(out);
+        this.out.write(MAGIC);
+        this.out.write(VERSION);
+    }
+
+    public void recordText(int type, String payload) throws IOException {
+        byte[] bytes = payload.getBytes(UTF_8);
+        record(type, bytes, 0, bytes.length);
+    }
+
+    // Any thread
+    public synchronized void record(int type, byte[] payload, int offset, int length) throws IOException {
+        long now = System.nanoTime();
+        long deltaMicros = recordCount == 0 ? 0 : Math.max(0, (now - lastNanos) / 1000);
+        lastNanos = now;
+        out.write(type);
+        writeVarint(deltaMicros);
+        writeVarint(length);
+        out.write(payload, offset, length);
+        recordCount++;
+    }
+
+    public synchronized long getRecordCount() {
+        return recordCount;
+    }
+
+    public synchronized void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        out.close();
+    }
+
+    // Unsigned LEB128, seven bits per byte
+    private void writeVarint(long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+}
@@ -0,0 +1,119 @@
+package com.systeminfo.display;
+
+import java.io.IOException;
+import java.util.concurrent.locks.LockSupport;
+
+// Plays a recording back on its own thread in place of the network, keeping the
+// original gaps between payloads divided by speed: 1 for real time, 10 to skim
+// a long capture, SPEED_MAX to push payloads as fast as the listener takes them
+// for throughput runs. stop() pauses; start() carries on from the next payload
+// with the gaps measured from that point.
+public class PayloadReplay {
+    public static final float SPEED_MAX = 0f;
+
+    public interface Listener {
+        // Called on the replay thread; data is only valid during the call.
+        // timeMicros is when the payload was recorded, relative to the first one.
+        void onPayload(int type, byte[] data, int length, long timeMicros);
+        // Called on the replay thread after the last payload
+        void onReplayFinished(long payloads, long elapsedNanos);
+        // Called on the replay thread when the recording can't be read
+        void onReplayError(IOException e);
+    }
+
+    private final PayloadReader reader;
+    private final float speed;
+    private final Listener listener;
+    private Thread thread;
+    private volatile boolean running = false;
+    private boolean finished = false;
+    // A record that was read but not yet delivered when the replay was stopped
+    private boolean pending = false;
+    private long playedNanos = 0;
+
+    public PayloadReplay(PayloadReader reader, float speed, Listener listener) {
+        if (speed < 0) {
+            throw new IllegalArgumentException("Speed must be positive or SPEED_MAX");
+        }
+        this.reader = reader;
+        this.speed = speed;
+        this.listener = listener;
+    }
+
+    public synchronized void start() {
+        if (running || finished) return;
+        running = true;
+        thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                play();
+            }
+        }, "PayloadReplay");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // Returns once the replay thread has stopped delivering
+    public void stop() {
+        Thread current;
+        synchronized (this) {
+            running = false;
+            current = thread;
+            thread = null;
+        }
+        if (current == null || current == Thread.currentThread()) return;
+        current.interrupt();
+        try {
+            current.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public synchronized boolean isFinished() {
+        return finished;
+    }
+
+    private void play() {
+        long startNanos = System.nanoTime();
+        long baseMicros = -1;
+        try {
+            while (running) {
+                if (!pending) {
+                    if (!reader.next()) break;
+                    pending = true;
+                }
+                if (baseMicros < 0) baseMicros = reader.getTimeMicros();
+                if (speed != SPEED_MAX) {
+                    long dueNanos = startNanos + (long) ((reader.getTimeMicros() - baseMicros) * 1000 / speed);
+                    long waitNanos;
+                    while (running && (waitNanos = dueNanos - System.nanoTime()) > 0) {
+                        LockSupport.parkNanos(waitNanos);
+                    }
+                    if (!running) break;
+                }
+                pending = false;
+                listener.onPayload(reader.getType(), reader.getData(), reader.getLength(), reader.getTimeMicros());
+            }
+        } catch (IOException e) {
+            synchronized (this) {
+                running = false;
+                finished = true;
+            }
+            listener.onReplayError(e);
+            return;
+        } finally {
+            playedNanos += System.nanoTime() - startNanos;
+        }
+        if (!running) return;
+        synchronized (this) {
+            running = false;
+            finished = true;
+        }
+        listener.onReplayFinished(reader.getRecordCount(), playedNanos);
+    }
+}
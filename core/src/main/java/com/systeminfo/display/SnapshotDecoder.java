@@ -0,0 +1,185 @@
+package com.systeminfo.display;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import java.io.IOException;
+import java.io.Reader;
+
+// Streams a /system-info JSON payload straight into a SystemSnapshot. Meant to run
+// on the network thread so the main thread never sees JSON. The server sends most
+// numbers as strings, so every field accepts either form.
+public class SnapshotDecoder {
+
+    // Sequence fields of a delta-mode message
+    public static class DeltaHeader {
+        public long sequence;
+        public long baseSequence;
+        public boolean full;
+
+        void reset() {
+            sequence = 0;
+            baseSequence = -1;
+            full = false;
+        }
+    }
+
+    public void decode(Reader source, SystemSnapshot into) throws IOException {
+        into.reset();
+        decode(source, into, null);
+    }
+
+    // Applies a delta-mode message on top of the existing state. Fields that are absent
+    // keep their previous values; a message marked full replaces the state entirely.
+    // The server sends the header fields first, so "full" is seen before any value.
+    public void decodeDelta(Reader source, SystemSnapshot state, DeltaHeader header) throws IOException {
+        header.reset();
+        state.hasError = false; // Error samples are always sent as full messages
+        decode(source, state, header);
+        if (header.full) {
+            state.sequence = header.sequence;
+        }
+    }
+
+    private void decode(Reader source, SystemSnapshot into, DeltaHeader header) throws IOException {
+        boolean merge = header != null;
+        JsonReader reader = new JsonReader(source);
+        reader.setLenient(true);
+        try {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                int gpuIndex = parseGpuIndex(name);
+                if (gpuIndex >= 0) {
+                    readGpu(reader, into, gpuIndex, merge);
+                } else if (merge && "seq".equals(name)) {
+                    header.sequence = reader.nextLong();
+                } else if (merge && "base".equals(name)) {
+                    header.baseSequence = reader.nextLong();
+                } else if (merge && "full".equals(name)) {
+                    header.full = reader.nextBoolean();
+                    if (header.full) {
+                        into.reset();
+                    }
+                } else if ("cpuUsage".equals(name)) {
+                    into.cpuUsage = readFloat(reader);
+                    into.hasCpuUsage = !Float.isNaN(into.cpuUsage);
+                } else if ("memoryUsage".equals(name)) {
+                    into.memoryUsage = readFloat(reader);
+                    into.hasMemoryUsage = !Float.isNaN(into.memoryUsage);
+                } else if ("cpuCores".equals(name)) {
+                    readCores(reader, into);
+                } else if ("totalPower".equals(name)) {
+                    into.totalPower = readFloat(reader);
+                } else if ("totalPowerLimit".equals(name)) {
+                    into.totalPowerLimit = readFloat(reader);
+                } else if ("totalPowerCostInDollarsPerMonth".equals(name)) {
+                    into.totalPowerCostInDollarsPerMonth = readFloat(reader);
+                    into.hasPowerCost = !Float.isNaN(into.totalPowerCostInDollarsPerMonth);
+                } else if ("totalPowerCostInCentsPerHour".equals(name)) {
+                    into.totalPowerCostInCentsPerHour = readFloat(reader);
+                } else if ("error".equals(name)) {
+                    into.hasError = true;
+                    reader.skipValue();
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+        } catch (IllegalStateException e) {
+            // JsonReader reports unexpected token types this way
+            throw new IOException("Error parsing data: " + e.getMessage(), e);
+        }
+        into.hasPower = !Float.isNaN(into.totalPower) && !Float.isNaN(into.totalPowerLimit);
+    }
+
+    private void readGpu(JsonReader reader, SystemSnapshot into, int index, boolean merge) throws IOException {
+        if (index >= SystemSnapshot.MAX_GPUS || reader.peek() != JsonToken.BEGIN_OBJECT) {
+            reader.skipValue();
+            return;
+        }
+        boolean hasMemoryUsed = false;
+        boolean hasMemoryTotal = false;
+        boolean hasMemoryPercent = false;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if ("usage".equals(name)) {
+                into.gpuUsage[index] = readFloat(reader);
+                into.hasGpuUsage[index] = !Float.isNaN(into.gpuUsage[index]);
+            } else if ("memoryUsed".equals(name)) {
+                into.gpuMemoryUsed[index] = readFloat(reader);
+                hasMemoryUsed = true;
+            } else if ("memoryTotal".equals(name)) {
+                into.gpuMemoryTotal[index] = readFloat(reader);
+                hasMemoryTotal = true;
+            } else if ("memoryPercent".equals(name)) {
+                into.gpuMemoryPercent[index] = readFloat(reader);
+                hasMemoryPercent = true;
+            } else if ("powerDraw".equals(name)) {
+                into.gpuPowerDraw[index] = readFloat(reader);
+            } else if ("powerLimit".equals(name)) {
+                into.gpuPowerLimit[index] = readFloat(reader);
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        boolean complete = hasMemoryUsed && hasMemoryTotal && hasMemoryPercent;
+        if (merge) {
+            // Unchanged memory fields are left out of a delta
+            complete = complete || into.hasGpuMemory[index];
+        }
+        into.hasGpuMemory[index] = complete && !Float.isNaN(into.gpuMemoryPercent[index]);
+        if (index + 1 > into.gpuCount) {
+            into.gpuCount = index + 1;
+        }
+    }
+
+    // A delta always carries the whole array, so cores are replaced, not merged
+    private void readCores(JsonReader reader, SystemSnapshot into) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_ARRAY) {
+            reader.skipValue();
+            return;
+        }
+        int count = 0;
+        reader.beginArray();
+        while (reader.hasNext()) {
+            if (count < SystemSnapshot.MAX_CPU_CORES) {
+                into.coreUsage[count++] = readFloat(reader);
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endArray();
+        into.coreCount = count;
+    }
+
+    // Returns NaN for null or non-numeric values
+    private float readFloat(JsonReader reader) throws IOException {
+        JsonToken token = reader.peek();
+        if (token == JsonToken.NUMBER) {
+            return (float) reader.nextDouble();
+        }
+        if (token == JsonToken.STRING) {
+            try {
+                return Float.parseFloat(reader.nextString());
+            } catch (NumberFormatException e) {
+                return Float.NaN;
+            }
+        }
+        reader.skipValue();
+        return Float.NaN;
+    }
+
+    // "gpu1" -> 0, "gpu12" -> 11, anything else -> -1
+    static int parseGpuIndex(String name) {
+        if (name.length() < 4 || !name.startsWith("gpu")) return -1;
+        int value = 0;
+        for (int i = 3; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c < '0' || c > '9') return -1;
+            value = value * 10 + (c - '0');
+        }
+        return value - 1;
+    }
+}
@@ -0,0 +1,117 @@
+package com.systeminfo.display;
+
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+// The server side of SnapshotDecoder and BinarySnapshotDecoder: writes a sample
+// in the same JSON and binary frame layouts the Python server produces, for
+// stand-in servers and benchmarks that need realistic payloads.
+public class SnapshotEncoder {
+    // Writes the JSON object. A positive sequence adds the delta-mode header of a
+    // full message ("seq", "full": true) ahead of the values. padding, if not null,
+    // is written as an extra field that clients ignore, to size the payload.
+    public void writeJson(SystemSnapshot snapshot, long sequence, String padding, Writer out) throws IOException {
+        JsonWriter writer = new JsonWriter(out);
+        writer.beginObject();
+        if (sequence > 0) {
+            writer.name("seq").value(sequence);
+            writer.name("full").value(true);
+        }
+        if (snapshot.hasError) {
+            writer.name("error").value("Sampling failed");
+            writer.endObject();
+            writer.flush();
+            return;
+        }
+        if (snapshot.hasCpuUsage) writeFloat(writer.name("cpuUsage"), snapshot.cpuUsage);
+        if (snapshot.coreCount > 0) {
+            writer.name("cpuCores").beginArray();
+            for (int i = 0; i < snapshot.coreCount; i++) {
+                writeFloat(writer, snapshot.coreUsage[i]);
+            }
+            writer.endArray();
+        }
+        if (snapshot.hasMemoryUsage) writeFloat(writer.name("memoryUsage"), snapshot.memoryUsage);
+        if (snapshot.hasPower) {
+            writeFloat(writer.name("totalPower"), snapshot.totalPower);
+            writeFloat(writer.name("totalPowerLimit"), snapshot.totalPowerLimit);
+        }
+        if (snapshot.hasPowerCost) {
+            writeFloat(writer.name("totalPowerCostInCentsPerHour"), snapshot.totalPowerCostInCentsPerHour);
+            writeFloat(writer.name("totalPowerCostInDollarsPerMonth"), snapshot.totalPowerCostInDollarsPerMonth);
+        }
+        for (int i = 0; i < snapshot.gpuCount; i++) {
+            writer.name("gpu" + (i + 1)).beginObject();
+            if (snapshot.hasGpuUsage[i]) writeFloat(writer.name("usage"), snapshot.gpuUsage[i]);
+            if (snapshot.hasGpuMemory[i]) {
+                writeFloat(writer.name("memoryUsed"), snapshot.gpuMemoryUsed[i]);
+                writeFloat(writer.name("memoryTotal"), snapshot.gpuMemoryTotal[i]);
+                writeFloat(writer.name("memoryPercent"), snapshot.gpuMemoryPercent[i]);
+            }
+            writeFloat(writer.name("powerDraw"), snapshot.gpuPowerDraw[i]);
+            writeFloat(writer.name("powerLimit"), snapshot.gpuPowerLimit[i]);
+            writer.endObject();
+        }
+        if (padding != null) writer.name("padding").value(padding);
+        writer.endObject();
+        writer.flush();
+    }
+
+    // Float.toString keeps "61.2" instead of the widened double's "61.20000076293945"
+    private static void writeFloat(JsonWriter writer, float value) throws IOException {
+        writer.value(Float.valueOf(value));
+    }
+
+    public static int frameSize(SystemSnapshot snapshot) {
+        int size = BinarySnapshotDecoder.HEADER_SIZE + snapshot.gpuCount * BinarySnapshotDecoder.GPU_SIZE;
+        if (snapshot.coreCount > 0) {
+            size += BinarySnapshotDecoder.CORES_HEADER_SIZE + snapshot.coreCount * 4;
+        }
+        return size;
+    }
+
+    // Writes one binary frame at the buffer's position; needs frameSize() bytes
+    public void writeFrame(SystemSnapshot snapshot, ByteBuffer out) {
+        out.order(ByteOrder.LITTLE_ENDIAN);
+        int flags = 0;
+        if (snapshot.hasCpuUsage) flags |= BinarySnapshotDecoder.FLAG_CPU;
+        if (snapshot.hasMemoryUsage) flags |= BinarySnapshotDecoder.FLAG_MEMORY;
+        if (snapshot.hasPower) flags |= BinarySnapshotDecoder.FLAG_POWER;
+        if (snapshot.hasPowerCost) flags |= BinarySnapshotDecoder.FLAG_POWER_COST;
+        if (snapshot.hasError) flags |= BinarySnapshotDecoder.FLAG_ERROR;
+        if (snapshot.coreCount > 0) flags |= BinarySnapshotDecoder.FLAG_CPU_CORES;
+        out.put((byte) BinarySnapshotDecoder.VERSION);
+        out.put((byte) flags);
+        out.put((byte) snapshot.gpuCount);
+        out.put((byte) 0);
+        out.putFloat(snapshot.cpuUsage);
+        out.putFloat(snapshot.memoryUsage);
+        out.putFloat(snapshot.totalPower);
+        out.putFloat(snapshot.totalPowerLimit);
+        out.putFloat(snapshot.totalPowerCostInDollarsPerMonth);
+        out.putFloat(snapshot.totalPowerCostInCentsPerHour);
+        for (int i = 0; i < snapshot.gpuCount; i++) {
+            int gpuFlags = 0;
+            if (snapshot.hasGpuUsage[i]) gpuFlags |= BinarySnapshotDecoder.GPU_FLAG_USAGE;
+            if (snapshot.hasGpuMemory[i]) gpuFlags |= BinarySnapshotDecoder.GPU_FLAG_MEMORY;
+            out.put((byte) gpuFlags);
+            out.put((byte) 0).put((byte) 0).put((byte) 0);
+            out.putFloat(snapshot.gpuUsage[i]);
+            out.putFloat(snapshot.gpuMemoryUsed[i]);
+            out.putFloat(snapshot.gpuMemoryTotal[i]);
+            out.putFloat(snapshot.gpuMemoryPercent[i]);
+            out.putFloat(snapshot.gpuPowerDraw[i]);
+            out.putFloat(snapshot.gpuPowerLimit[i]);
+        }
+        if (snapshot.coreCount > 0) {
+            out.putShort((short) snapshot.coreCount);
+            out.putShort((short) 0);
+            for (int i = 0; i < snapshot.coreCount; i++) {
+                out.putFloat(snapshot.coreUsage[i]);
+            }
+        }
+    }
+}
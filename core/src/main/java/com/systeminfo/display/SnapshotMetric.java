@@ -0,0 +1,171 @@
+package com.systeminfo.display;
+
+// A named value in a SystemSnapshot, resolved once from a key such as
+// "cpuUsage", "gpu1.memoryPercent", "core3" or a ratio of two of them like
+// "totalPower/totalPowerLimit". Reading it is a switch on a field code, so
+// rules can look metrics up per sample without strings or maps. GPUs are
+// numbered from 1 as in the server's payload, cores from 0 as on the tiles.
+public class SnapshotMetric {
+    // The dashboard tile a metric belongs to
+    public static final int TARGET_CPU = 0;
+    public static final int TARGET_MEMORY = 1;
+    public static final int TARGET_GPU = 2;
+    public static final int TARGET_CORE = 3;
+    public static final int TARGET_POWER = 4;
+
+    private static final int CPU_USAGE = 0;
+    private static final int MEMORY_USAGE = 1;
+    private static final int TOTAL_POWER = 2;
+    private static final int TOTAL_POWER_LIMIT = 3;
+    private static final int COST_CENTS_PER_HOUR = 4;
+    private static final int COST_DOLLARS_PER_MONTH = 5;
+    private static final int GPU_USAGE = 6;
+    private static final int GPU_MEMORY_USED = 7;
+    private static final int GPU_MEMORY_TOTAL = 8;
+    private static final int GPU_MEMORY_PERCENT = 9;
+    private static final int GPU_POWER_DRAW = 10;
+    private static final int GPU_POWER_LIMIT = 11;
+    private static final int CORE_USAGE = 12;
+    private static final int NONE = -1;
+
+    private final String key;
+    private final int field;
+    private final int index;
+    private final int divisorField;
+    private final int divisorIndex;
+    private final int target;
+
+    // Throws IllegalArgumentException for an unknown key
+    public SnapshotMetric(String key) {
+        this.key = key;
+        int slash = key.indexOf('/');
+        String numerator = slash < 0 ? key : key.substring(0, slash);
+        int[] parsed = parse(numerator);
+        field = parsed[0];
+        index = parsed[1];
+        if (slash < 0) {
+            divisorField = NONE;
+            divisorIndex = 0;
+        } else {
+            int[] divisor = parse(key.substring(slash + 1));
+            divisorField = divisor[0];
+            divisorIndex = divisor[1];
+        }
+        target = targetOf(field);
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    // One of the TARGET_ constants
+    public int getTarget() {
+        return target;
+    }
+
+    // GPU or core number within the target, zero-based
+    public int getTargetIndex() {
+        return index;
+    }
+
+    // The current value, or NaN when the sample doesn't carry it
+    public float read(SystemSnapshot snapshot) {
+        float value = read(snapshot, field, index);
+        if (divisorField == NONE || Float.isNaN(value)) return value;
+        float divisor = read(snapshot, divisorField, divisorIndex);
+        return divisor > 0 ? value / divisor : Float.NaN;
+    }
+
+    private static float read(SystemSnapshot s, int field, int i) {
+        switch (field) {
+            case CPU_USAGE:
+                return s.hasCpuUsage ? s.cpuUsage : Float.NaN;
+            case MEMORY_USAGE:
+                return s.hasMemoryUsage ? s.memoryUsage : Float.NaN;
+            case TOTAL_POWER:
+                return s.hasPower ? s.totalPower : Float.NaN;
+            case TOTAL_POWER_LIMIT:
+                return s.hasPower ? s.totalPowerLimit : Float.NaN;
+            case COST_CENTS_PER_HOUR:
+                return s.hasPowerCost ? s.totalPowerCostInCentsPerHour : Float.NaN;
+            case COST_DOLLARS_PER_MONTH:
+                return s.hasPowerCost ? s.totalPowerCostInDollarsPerMonth : Float.NaN;
+            case GPU_USAGE:
+                return i < s.gpuCount && s.hasGpuUsage[i] ? s.gpuUsage[i] : Float.NaN;
+            case GPU_MEMORY_USED:
+                return i < s.gpuCount && s.hasGpuMemory[i] ? s.gpuMemoryUsed[i] : Float.NaN;
+            case GPU_MEMORY_TOTAL:
+                return i < s.gpuCount && s.hasGpuMemory[i] ? s.gpuMemoryTotal[i] : Float.NaN;
+            case GPU_MEMORY_PERCENT:
+                return i < s.gpuCount && s.hasGpuMemory[i] ? s.gpuMemoryPercent[i] : Float.NaN;
+            case GPU_POWER_DRAW:
+                return i < s.gpuCount ? s.gpuPowerDraw[i] : Float.NaN;
+            case GPU_POWER_LIMIT:
+                return i < s.gpuCount ? s.gpuPowerLimit[i] : Float.NaN;
+            case CORE_USAGE:
+                return i < s.coreCount ? s.coreUsage[i] : Float.NaN;
+            default:
+                return Float.NaN;
+        }
+    }
+
+    // Returns {field, index}
+    private static int[] parse(String name) {
+        if (name.equals("cpuUsage")) return new int[]{CPU_USAGE, 0};
+        if (name.equals("memoryUsage")) return new int[]{MEMORY_USAGE, 0};
+        if (name.equals("totalPower")) return new int[]{TOTAL_POWER, 0};
+        if (name.equals("totalPowerLimit")) return new int[]{TOTAL_POWER_LIMIT, 0};
+        if (name.equals("totalPowerCostInCentsPerHour")) return new int[]{COST_CENTS_PER_HOUR, 0};
+        if (name.equals("totalPowerCostInDollarsPerMonth")) return new int[]{COST_DOLLARS_PER_MONTH, 0};
+        if (name.startsWith("core")) {
+            int core = parseIndex(name, name.substring(4));
+            if (core < 0 || core >= SystemSnapshot.MAX_CPU_CORES) throw unknown(name);
+            return new int[]{CORE_USAGE, core};
+        }
+        int dot = name.indexOf('.');
+        if (name.startsWith("gpu") && dot > 3) {
+            int gpu = parseIndex(name, name.substring(3, dot)) - 1;
+            if (gpu < 0 || gpu >= SystemSnapshot.MAX_GPUS) throw unknown(name);
+            String property = name.substring(dot + 1);
+            if (property.equals("usage")) return new int[]{GPU_USAGE, gpu};
+            if (property.equals("memoryUsed")) return new int[]{GPU_MEMORY_USED, gpu};
+            if (property.equals("memoryTotal")) return new int[]{GPU_MEMORY_TOTAL, gpu};
+            if (property.equals("memoryPercent")) return new int[]{GPU_MEMORY_PERCENT, gpu};
+            if (property.equals("powerDraw")) return new int[]{GPU_POWER_DRAW, gpu};
+            if (property.equals("powerLimit")) return new int[]{GPU_POWER_LIMIT, gpu};
+        }
+        throw unknown(name);
+    }
+
+    private static int parseIndex(String name, String digits) {
+        try {
+            return Integer.parseInt(digits);
+        } catch (NumberFormatException e) {
+            throw unknown(name);
+        }
+    }
+
+    private static IllegalArgumentException unknown(String name) {
+        return new IllegalArgumentException("Unknown metric " + name);
+    }
+
+    private static int targetOf(int field) {
+        switch (field) {
+            case CPU_USAGE:
+                return TARGET_CPU;
+            case MEMORY_USAGE:
+                return TARGET_MEMORY;
+            case CORE_USAGE:
+                return TARGET_CORE;
+            case GPU_USAGE:
+            case GPU_MEMORY_USED:
+            case GPU_MEMORY_TOTAL:
+            case GPU_MEMORY_PERCENT:
+            case GPU_POWER_DRAW:
+            case GPU_POWER_LIMIT:
+                return TARGET_GPU;
+            default:
+                return TARGET_POWER;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.systeminfo.display;
+
+// One decoded /system-info sample, held in primitive fields so the main thread
+// only has to apply numbers. Instances are reused through Pool instead of being
+// allocated per sample.
+public class SystemSnapshot {
+    public static final int MAX_GPUS = 8;
+    public static final int MAX_CPU_CORES = 128;
+
+    public boolean hasCpuUsage;
+    public float cpuUsage;
+    public boolean hasMemoryUsage;
+    public float memoryUsage;
+
+    // Per-core CPU load, present for the first coreCount cores
+    public int coreCount;
+    public final float[] coreUsage = new float[MAX_CPU_CORES];
+
+    // GPUs are stored by zero-based index, so "gpu1" is index 0
+    public int gpuCount;
+    public final boolean[] hasGpuUsage = new boolean[MAX_GPUS];
+    public final float[] gpuUsage = new float[MAX_GPUS];
+    public final boolean[] hasGpuMemory = new boolean[MAX_GPUS];
+    public final float[] gpuMemoryUsed = new float[MAX_GPUS];
+    public final float[] gpuMemoryTotal = new float[MAX_GPUS];
+    public final float[] gpuMemoryPercent = new float[MAX_GPUS];
+    public final float[] gpuPowerDraw = new float[MAX_GPUS];
+    public final float[] gpuPowerLimit = new float[MAX_GPUS];
+
+    public boolean hasPower;
+    public float totalPower;
+    public float totalPowerLimit;
+    public boolean hasPowerCost;
+    public float totalPowerCostInDollarsPerMonth;
+    public float totalPowerCostInCentsPerHour;
+
+    public boolean hasError;
+
+    // Server sample sequence number, or 0 when the payload didn't carry one
+    public long sequence;
+
+    // System.nanoTime() when decoding finished, for latency instrumentation
+    public long decodedAtNanos;
+
+    // When the sample arrived, in ms on a monotonic clock; for a replayed sample
+    // the time it was recorded at. Alert holds and rates are measured on it.
+    public long sampledAtMs;
+
+    public void reset() {
+        hasCpuUsage = false;
+        cpuUsage = 0f;
+        hasMemoryUsage = false;
+        memoryUsage = 0f;
+        coreCount = 0;
+        gpuCount = 0;
+        for (int i = 0; i < MAX_GPUS; i++) {
+            hasGpuUsage[i] = false;
+            gpuUsage[i] = 0f;
+            hasGpuMemory[i] = false;
+            gpuMemoryUsed[i] = 0f;
+            gpuMemoryTotal[i] = 0f;
+            gpuMemoryPercent[i] = 0f;
+            gpuPowerDraw[i] = 0f;
+            gpuPowerLimit[i] = 0f;
+        }
+        hasPower = false;
+        totalPower = Float.NaN;
+        totalPowerLimit = Float.NaN;
+        hasPowerCost = false;
+        totalPowerCostInDollarsPerMonth = 0f;
+        totalPowerCostInCentsPerHour = 0f;
+        hasError = false;
+        sequence = 0;
+        decodedAtNanos = 0;
+        sampledAtMs = 0;
+    }
+
+    public void copyFrom(SystemSnapshot other) {
+        hasCpuUsage = other.hasCpuUsage;
+        cpuUsage = other.cpuUsage;
+        hasMemoryUsage = other.hasMemoryUsage;
+        memoryUsage = other.memoryUsage;
+        coreCount = other.coreCount;
+        System.arraycopy(other.coreUsage, 0, coreUsage, 0, other.coreCount);
+        gpuCount = other.gpuCount;
+        System.arraycopy(other.hasGpuUsage, 0, hasGpuUsage, 0, MAX_GPUS);
+        System.arraycopy(other.gpuUsage, 0, gpuUsage, 0, MAX_GPUS);
+        System.arraycopy(other.hasGpuMemory, 0, hasGpuMemory, 0, MAX_GPUS);
+        System.arraycopy(other.gpuMemoryUsed, 0, gpuMemoryUsed, 0, MAX_GPUS);
+        System.arraycopy(other.gpuMemoryTotal, 0, gpuMemoryTotal, 0, MAX_GPUS);
+        System.arraycopy(other.gpuMemoryPercent, 0, gpuMemoryPercent, 0, MAX_GPUS);
+        System.arraycopy(other.gpuPowerDraw, 0, gpuPowerDraw, 0, MAX_GPUS);
+        System.arraycopy(other.gpuPowerLimit, 0, gpuPowerLimit, 0, MAX_GPUS);
+        hasPower = other.hasPower;
+        totalPower = other.totalPower;
+        totalPowerLimit = other.totalPowerLimit;
+        hasPowerCost = other.hasPowerCost;
+        totalPowerCostInDollarsPerMonth = other.totalPowerCostInDollarsPerMonth;
+        totalPowerCostInCentsPerHour = other.totalPowerCostInCentsPerHour;
+        hasError = other.hasError;
+        sequence = other.sequence;
+        decodedAtNanos = other.decodedAtNanos;
+        sampledAtMs = other.sampledAtMs;
+    }
+
+    public float getPowerPercent() {
+        return totalPowerLimit > 0f ? (totalPower / totalPowerLimit) * 100f : 0f;
+    }
+
+    // Small fixed-size free list shared by the network threads and the main thread
+    public static class Pool {
+        private final SystemSnapshot[] free;
+        private int size = 0;
+
+        public Pool(int capacity) {
+            free = new SystemSnapshot[capacity];
+            for (int i = 0; i < capacity; i++) {
+                free[i] = new SystemSnapshot();
+            }
+            size = capacity;
+        }
+
+        public synchronized SystemSnapshot acquire() {
+            if (size == 0) {
+                // Only happens if every pooled instance is still queued for the UI
+                return new SystemSnapshot();
+            }
+            SystemSnapshot snapshot = free[--size];
+            free[size] = null;
+            return snapshot;
+        }
+
+        public synchronized void release(SystemSnapshot snapshot) {
+            if (snapshot != null && size < free.length) {
+                free[size++] = snapshot;
+            }
+        }
+    }
+}
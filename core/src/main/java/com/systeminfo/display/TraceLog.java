@@ -0,0 +1,171 @@
+package com.systeminfo.display;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Binary event trace for hot paths that used to Log.d every sample. Events are
+// defined once up front with a name, a level and argument names; recording one
+// writes an id, a timestamp and up to four primitive arguments into a
+// preallocated ring of fixed-size slots, so it never allocates, formats or
+// crosses into logcat. An event more verbose than the current level returns after
+// one int comparison. The ring keeps the newest CAPACITY events and is only turned into
+// text when dump() is called.
+public class TraceLog {
+    public static final int ERROR = 1;
+    public static final int INFO = 2;
+    public static final int DEBUG = 3;
+    public static final int VERBOSE = 4;
+
+    public static final int CAPACITY = 4096; // Power of two
+    private static final int MAX_EVENTS = 64;
+    private static final int MAX_ARGS = 4;
+    // commit, id and float mask, timestamp, then the arguments
+    private static final int SLOT_WORDS = 3 + MAX_ARGS;
+    private static final int FLOAT_MASK_SHIFT = 16;
+
+    private static TraceLog instance;
+
+    private final AtomicLongArray slots = new AtomicLongArray(CAPACITY * SLOT_WORDS);
+    private final AtomicLong cursor = new AtomicLong();
+    private final String[] names = new String[MAX_EVENTS];
+    private final String[][] argNames = new String[MAX_EVENTS][];
+    private final int[] levels = new int[MAX_EVENTS];
+    private int eventCount = 0;
+    private volatile int level = INFO;
+
+    public static synchronized TraceLog getInstance() {
+        if (instance == null) {
+            instance = new TraceLog();
+        }
+        return instance;
+    }
+
+    private TraceLog() {
+    }
+
+    // Call once per event, typically from a static initializer; returns its id
+    public synchronized int define(int level, String name, String... args) {
+        if (args.length > MAX_ARGS) {
+            throw new IllegalArgumentException("At most " + MAX_ARGS + " arguments: " + name);
+        }
+        if (eventCount == MAX_EVENTS) {
+            throw new IllegalStateException("Too many trace events");
+        }
+        int id = eventCount++;
+        names[id] = name;
+        argNames[id] = args;
+        levels[id] = level;
+        return id;
+    }
+
+    // Events above this level are dropped at the call site
+    public void setLevel(int level) {
+        this.level = level;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public boolean isEnabled(int id) {
+        return levels[id] <= level;
+    }
+
+    public void record(int id) {
+        if (levels[id] > level) return;
+        write(id, 0, 0, 0, 0, 0);
+    }
+
+    public void record(int id, long a0) {
+        if (levels[id] > level) return;
+        write(id, 0, a0, 0, 0, 0);
+    }
+
+    public void record(int id, long a0, long a1) {
+        if (levels[id] > level) return;
+        write(id, 0, a0, a1, 0, 0);
+    }
+
+    public void record(int id, long a0, long a1, long a2, long a3) {
+        if (levels[id] > level) return;
+        write(id, 0, a0, a1, a2, a3);
+    }
+
+    public void recordFloat(int id, float a0) {
+        if (levels[id] > level) return;
+        write(id, 0x1, Float.floatToRawIntBits(a0), 0, 0, 0);
+    }
+
+    // Every argument is stored as a float and dumped as one
+    public void recordFloats(int id, float a0, float a1, float a2) {
+        if (levels[id] > level) return;
+        write(id, 0x7, Float.floatToRawIntBits(a0), Float.floatToRawIntBits(a1),
+                Float.floatToRawIntBits(a2), 0);
+    }
+
+    // Any thread. Each writer claims its own slot, clears the slot's sequence
+    // number, then publishes the slot by writing the new one last, so dump() can
+    // tell a slot that changed while it was being read.
+    private void write(int id, int floatMask, long a0, long a1, long a2, long a3) {
+        long sequence = cursor.getAndIncrement();
+        int base = (int) (sequence & (CAPACITY - 1)) * SLOT_WORDS;
+        slots.set(base, 0);
+        slots.lazySet(base + 1, id | floatMask << FLOAT_MASK_SHIFT);
+        slots.lazySet(base + 2, System.nanoTime());
+        slots.lazySet(base + 3, a0);
+        slots.lazySet(base + 4, a1);
+        slots.lazySet(base + 5, a2);
+        slots.lazySet(base + 6, a3);
+        slots.set(base, sequence + 1);
+    }
+
+    public long getRecordedCount() {
+        return cursor.get();
+    }
+
+    public void clear() {
+        cursor.set(0);
+        for (int i = 0; i < CAPACITY; i++) {
+            slots.set(i * SLOT_WORDS, 0);
+        }
+    }
+
+    // Tab-separated dump of the ring, oldest first. Times are milliseconds
+    // before the dump, so events line up with the moment the file was written.
+    public void dump(Writer out) throws IOException {
+        long end = cursor.get();
+        long start = Math.max(0, end - CAPACITY);
+        long now = System.nanoTime();
+        out.write("# system-info trace, " + end + " events recorded, level " + level + "\n");
+        out.write("ms_ago\tevent\targs\n");
+        StringBuilder line = new StringBuilder();
+        long[] values = new long[MAX_ARGS];
+        for (long sequence = start; sequence < end; sequence++) {
+            int base = (int) (sequence & (CAPACITY - 1)) * SLOT_WORDS;
+            if (slots.get(base) != sequence + 1) continue; // Overwritten or still being written
+            int meta = (int) slots.get(base + 1);
+            long timestamp = slots.get(base + 2);
+            for (int i = 0; i < MAX_ARGS; i++) {
+                values[i] = slots.get(base + 3 + i);
+            }
+            // A writer that wrapped around while the slot was being read changed its sequence
+            if (slots.get(base) != sequence + 1) continue;
+            int id = meta & 0xFFFF;
+            int floatMask = meta >>> FLOAT_MASK_SHIFT;
+            line.setLength(0);
+            line.append((now - timestamp) / 1000000f).append('\t').append(names[id]);
+            String[] args = argNames[id];
+            for (int i = 0; i < args.length; i++) {
+                line.append(i == 0 ? '\t' : ' ').append(args[i]).append('=');
+                if ((floatMask & 1 << i) != 0) {
+                    line.append(Float.intBitsToFloat((int) values[i]));
+                } else {
+                    line.append(values[i]);
+                }
+            }
+            out.write(line.append('\n').toString());
+        }
+    }
+}
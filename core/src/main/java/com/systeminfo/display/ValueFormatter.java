@@ -0,0 +1,87 @@
+package com.systeminfo.display;
+
+// Builds the text shown in the centre of a ring into a caller-owned char buffer,
+// producing the same strings String.format used to, without allocating.
+// Every method writes at offset and returns the new offset.
+public final class ValueFormatter {
+    private ValueFormatter() {
+    }
+
+    // "42%"
+    public static int formatPercent(char[] buffer, int offset, float percent) {
+        offset = appendInt(buffer, offset, (int) percent);
+        buffer[offset++] = '%';
+        return offset;
+    }
+
+    // "10.5 GB \u2022 42%"; memoryText is used while the numeric value is unknown (NaN)
+    public static int formatGpu(char[] buffer, int offset, float memoryUsedGb, String memoryText, float percent) {
+        offset = formatMemoryUsed(buffer, offset, memoryUsedGb, memoryText);
+        offset = appendChars(buffer, offset, " GB \u2022 ");
+        return formatPercent(buffer, offset, percent);
+    }
+
+    // "230W", with "\n$12.5" appended when the monthly cost is known
+    public static int formatPower(char[] buffer, int offset, float watts, float costDollarsPerMonth) {
+        offset = appendInt(buffer, offset, Math.round(watts));
+        buffer[offset++] = 'W';
+        if (!Float.isNaN(costDollarsPerMonth)) {
+            buffer[offset++] = '\n';
+            buffer[offset++] = '$';
+            offset = appendDecimal(buffer, offset, costDollarsPerMonth, 2);
+        }
+        return offset;
+    }
+
+    public static int formatMemoryUsed(char[] buffer, int offset, float memoryUsedGb, String memoryText) {
+        if (!Float.isNaN(memoryUsedGb)) {
+            return appendDecimal(buffer, offset, memoryUsedGb, 1);
+        }
+        return appendChars(buffer, offset, memoryText == null ? "" : memoryText);
+    }
+
+    // Writes value into buffer at offset and returns the new offset
+    public static int appendInt(char[] buffer, int offset, int value) {
+        if (value < 0) {
+            buffer[offset++] = '-';
+            value = -value;
+        }
+        int digits = 1;
+        for (int v = value; v >= 10; v /= 10) digits++;
+        for (int i = offset + digits - 1; i >= offset; i--) {
+            buffer[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        return offset + digits;
+    }
+
+    // Rounds to maxDecimals and drops trailing zeros, keeping at least one decimal
+    // like Float.toString ("10.0", "28.1", "28.13")
+    public static int appendDecimal(char[] buffer, int offset, float value, int maxDecimals) {
+        int scale = 1;
+        for (int i = 0; i < maxDecimals; i++) scale *= 10;
+        long scaled = Math.round(Math.abs(value) * scale);
+        if (value < 0 && scaled != 0) {
+            buffer[offset++] = '-';
+        }
+        offset = appendInt(buffer, offset, (int) (scaled / scale));
+        buffer[offset++] = '.';
+        int fraction = (int) (scaled % scale);
+        int decimals = maxDecimals;
+        while (decimals > 1 && fraction % 10 == 0) {
+            fraction /= 10;
+            decimals--;
+        }
+        for (int i = offset + decimals - 1; i >= offset; i--) {
+            buffer[i] = (char) ('0' + fraction % 10);
+            fraction /= 10;
+        }
+        return offset + decimals;
+    }
+
+    public static int appendChars(char[] buffer, int offset, String text) {
+        int length = Math.min(text.length(), buffer.length - offset);
+        text.getChars(0, length, buffer, offset);
+        return offset + length;
+    }
+}
@@ -0,0 +1,128 @@
+package com.systeminfo.display;
+
+// Rolling min, max, mean and percentiles of one metric over the last windowMs,
+// kept up to date per sample instead of by scanning the history:
+//
+//   min / max    monotonic deques of sample positions; each sample is pushed
+//                and popped at most once, so adding one is amortized O(1)
+//   mean         running sum of the samples in the window
+//   percentiles  a fixed histogram of 0.5% buckets over 0..100, so a query
+//                walks a constant 201 counters however many samples there are
+//
+// Values are percentages like everything drawn on a ring; the histogram clamps
+// to 0..100, min, max and mean are exact. Samples live in a ring of capacity
+// entries, and the oldest are dropped early if the window holds more than that.
+// Not thread-safe.
+public class WindowStats {
+    private static final int BUCKETS_PER_PERCENT = 2;
+    private static final int BUCKET_COUNT = 100 * BUCKETS_PER_PERCENT + 1;
+
+    private final long windowMs;
+    private final int capacity;
+    private final float[] values;
+    private final long[] timestamps;
+    // Positions of samples still in the window, as running sample numbers;
+    // values along minDeque increase and along maxDeque decrease
+    private final int[] minDeque;
+    private final int[] maxDeque;
+    private final int[] histogram = new int[BUCKET_COUNT];
+    private int first = 0; // Oldest sample still in the window
+    private int next = 0;  // Number of the next sample
+    private int minHead = 0, minTail = 0;
+    private int maxHead = 0, maxTail = 0;
+    private double sum = 0;
+
+    public WindowStats(long windowMs, int capacity) {
+        if (windowMs <= 0 || capacity <= 0) {
+            throw new IllegalArgumentException("Window and capacity must be positive");
+        }
+        this.windowMs = windowMs;
+        this.capacity = capacity;
+        values = new float[capacity];
+        timestamps = new long[capacity];
+        minDeque = new int[capacity];
+        maxDeque = new int[capacity];
+    }
+
+    public long getWindowMs() {
+        return windowMs;
+    }
+
+    public void reset() {
+        first = next = 0;
+        minHead = minTail = maxHead = maxTail = 0;
+        sum = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) histogram[i] = 0;
+    }
+
+    public void addSample(float value, long timestampMs) {
+        if (Float.isNaN(value)) return;
+        // Drop what has left the window, and the oldest sample if the ring is full
+        while (first < next && (next - first == capacity || timestamps[slot(first)] <= timestampMs - windowMs)) {
+            evictFirst();
+        }
+        int slot = slot(next);
+        values[slot] = value;
+        timestamps[slot] = timestampMs;
+        while (minTail > minHead && values[slot(minDeque[slot(minTail - 1)])] >= value) minTail--;
+        minDeque[slot(minTail++)] = next;
+        while (maxTail > maxHead && values[slot(maxDeque[slot(maxTail - 1)])] <= value) maxTail--;
+        maxDeque[slot(maxTail++)] = next;
+        sum += value;
+        histogram[bucket(value)]++;
+        next++;
+    }
+
+    private void evictFirst() {
+        float value = values[slot(first)];
+        sum -= value;
+        histogram[bucket(value)]--;
+        if (minDeque[slot(minHead)] == first) minHead++;
+        if (maxDeque[slot(maxHead)] == first) maxHead++;
+        first++;
+        if (first == next) sum = 0; // Don't let rounding drift outlive the samples
+    }
+
+    public int getCount() {
+        return next - first;
+    }
+
+    // NaN while the window is empty
+    public float getMin() {
+        return minTail > minHead ? values[slot(minDeque[slot(minHead)])] : Float.NaN;
+    }
+
+    public float getMax() {
+        return maxTail > maxHead ? values[slot(maxDeque[slot(maxHead)])] : Float.NaN;
+    }
+
+    public float getMean() {
+        int count = getCount();
+        return count > 0 ? (float) (sum / count) : Float.NaN;
+    }
+
+    // The given percentile, e.g. 95, to the nearest 0.5%; NaN while empty
+    public float getPercentile(float percentile) {
+        int count = getCount();
+        if (count == 0) return Float.NaN;
+        int rank = Math.max(1, (int) Math.ceil(count * percentile / 100f));
+        int seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += histogram[i];
+            if (seen >= rank) {
+                // Never report past the actual extremes of the window
+                return Math.max(getMin(), Math.min(getMax(), (float) i / BUCKETS_PER_PERCENT));
+            }
+        }
+        return getMax();
+    }
+
+    private int slot(int sample) {
+        return (sample & Integer.MAX_VALUE) % capacity;
+    }
+
+    private static int bucket(float value) {
+        int bucket = Math.round(value * BUCKETS_PER_PERCENT);
+        return bucket < 0 ? 0 : Math.min(bucket, BUCKET_COUNT - 1);
+    }
+}
@@ -0,0 +1,40 @@
+"""Answers the Android app's LAN discovery broadcast.
+
+The app sends SYSINFO_DISCOVER to UDP port 8881 on the broadcast address; every
+responder replies with SYSINFO_HERE <http port> and the app connects to the
+sender's address on that port. system_info_server.py starts one alongside the
+HTTP server. Run this file on its own to stand in for a server during testing,
+e.g. to point the app at a machine that serves /system-info on another port:
+
+    python discovery_responder.py --http-port 9000
+"""
+import argparse
+import socket
+import threading
+
+DISCOVERY_PORT = 8881
+DISCOVER_MESSAGE = b'SYSINFO_DISCOVER'
+REPLY_PREFIX = b'SYSINFO_HERE '
+
+def serve(http_port, discovery_port=DISCOVERY_PORT):
+    sock = socket.socket(socket.AF_INET, socket.SOCK_DGRAM)
+    sock.setsockopt(socket.SOL_SOCKET, socket.SO_REUSEADDR, 1)
+    sock.bind(('', discovery_port))
+    reply = REPLY_PREFIX + str(http_port).encode('ascii')
+    while True:
+        message, address = sock.recvfrom(64)
+        if message.strip() == DISCOVER_MESSAGE:
+            sock.sendto(reply, address)
+
+def start(http_port, discovery_port=DISCOVERY_PORT):
+    thread = threading.Thread(target=serve, args=(http_port, discovery_port), daemon=True)
+    thread.start()
+    return thread
+
+if __name__ == '__main__':
+    parser = argparse.ArgumentParser(description='Stand-in discovery responder')
+    parser.add_argument('--http-port', type=int, default=8880)
+    parser.add_argument('--discovery-port', type=int, default=DISCOVERY_PORT)
+    args = parser.parse_args()
+    print(f"Answering discovery on UDP {args.discovery_port} with HTTP port {args.http_port}")
+    serve(args.http_port, args.discovery_port)
@@ -1,4 +1,5 @@
-from flask import Flask, jsonify
+from flask import Flask, Response, jsonify, request
+from flask_sock import Sock
 import psutil
 import platform
 import datetime
@@ -6,12 +7,35 @@ import socket
 import os
 import subprocess
 import json
+import struct
+import threading
+from collections import OrderedDict
+import discovery_responder
 
 app = Flask(__name__)
+sock = Sock(app)
 
 # Cost per kilowatt-hour in cents (13 cents per kWh)
 COST_PER_KWH = 13
 
+# Compact binary frame, sent instead of JSON when the client's Accept header asks for it.
+# Layout (little-endian): u8 version, u8 flags, u8 gpuCount, u8 reserved, 6 x f32 totals,
+# then per GPU: u8 gpuFlags, 3 reserved bytes, 6 x f32 values,
+# then, when FLAG_CPU_CORES is set: u16 coreCount, 2 reserved bytes, coreCount x f32.
+FRAME_MEDIA_TYPE = 'application/vnd.systeminfo.frame'
+FRAME_VERSION = 1
+FLAG_CPU = 1
+FLAG_MEMORY = 1 << 1
+FLAG_POWER = 1 << 2
+FLAG_POWER_COST = 1 << 3
+FLAG_ERROR = 1 << 4
+FLAG_CPU_CORES = 1 << 5
+GPU_FLAG_USAGE = 1
+GPU_FLAG_MEMORY = 1 << 1
+FRAME_HEADER = struct.Struct('<BBBB6f')
+FRAME_GPU = struct.Struct('<B3x6f')
+FRAME_CORES = struct.Struct('<H2x')
+
 def get_size(bytes, suffix="B"):
     factor = 1024
     for unit in ["", "K", "M", "G", "T", "P"]:
@@ -50,8 +74,9 @@ def get_gpu_info():
 
 def get_system_info():
     try:
-        # CPU Usage
-        cpu_usage = psutil.cpu_percent(interval=1)
+        # CPU Usage, per core and overall
+        cpu_cores = psutil.cpu_percent(interval=1, percpu=True)
+        cpu_usage = round(sum(cpu_cores) / len(cpu_cores), 1) if cpu_cores else 0.0
         
         # Memory Usage
         memory = psutil.virtual_memory()
@@ -79,6 +104,7 @@ def get_system_info():
         
         return {
             "cpuUsage": cpu_usage,
+            "cpuCores": cpu_cores,
             "memoryUsage": memory_usage,
             "diskSpace": disk_space,
             "totalPower": str(round(total_power, 1)),  # Total system power in watts
@@ -93,9 +119,177 @@ def get_system_info():
             "error": str(e)
         }
 
+def to_float(value):
+    try:
+        return float(value)
+    except (TypeError, ValueError):
+        return 0.0
+
+def encode_frame(info):
+    flags = 0
+    if 'cpuUsage' in info:
+        flags |= FLAG_CPU
+    if 'memoryUsage' in info:
+        flags |= FLAG_MEMORY
+    if 'totalPower' in info and 'totalPowerLimit' in info:
+        flags |= FLAG_POWER
+    if 'totalPowerCostInDollarsPerMonth' in info:
+        flags |= FLAG_POWER_COST
+    if 'error' in info:
+        flags |= FLAG_ERROR
+    cores = info.get('cpuCores') or []
+    if cores:
+        flags |= FLAG_CPU_CORES
+
+    gpus = []
+    index = 1
+    while f'gpu{index}' in info:
+        gpus.append(info[f'gpu{index}'])
+        index += 1
+
+    parts = [FRAME_HEADER.pack(
+        FRAME_VERSION, flags, len(gpus), 0,
+        to_float(info.get('cpuUsage')),
+        to_float(info.get('memoryUsage')),
+        to_float(info.get('totalPower')),
+        to_float(info.get('totalPowerLimit')),
+        to_float(info.get('totalPowerCostInDollarsPerMonth')),
+        to_float(info.get('totalPowerCostInCentsPerHour')))]
+    for gpu in gpus:
+        gpu_flags = 0
+        if 'usage' in gpu:
+            gpu_flags |= GPU_FLAG_USAGE
+        if 'memoryUsed' in gpu and 'memoryTotal' in gpu and 'memoryPercent' in gpu:
+            gpu_flags |= GPU_FLAG_MEMORY
+        parts.append(FRAME_GPU.pack(
+            gpu_flags,
+            to_float(gpu.get('usage')),
+            to_float(gpu.get('memoryUsed')),
+            to_float(gpu.get('memoryTotal')),
+            to_float(gpu.get('memoryPercent')),
+            to_float(gpu.get('powerDraw')),
+            to_float(gpu.get('powerLimit'))))
+    if cores:
+        parts.append(FRAME_CORES.pack(len(cores)))
+        parts.append(struct.pack(f'<{len(cores)}f', *(to_float(core) for core in cores)))
+    return b''.join(parts)
+
+def wants_frame():
+    return FRAME_MEDIA_TYPE in request.headers.get('Accept', '')
+
+# Delta mode: each message carries the sampler's sequence number and only the fields that
+# changed since the base sequence. Header fields always come first so the client knows how
+# to merge before it sees any values.
+def compute_delta(old, new):
+    delta = {}
+    for key, value in new.items():
+        previous = old.get(key)
+        if isinstance(value, dict) and isinstance(previous, dict):
+            changed = {k: v for k, v in value.items() if previous.get(k) != v}
+            if changed:
+                delta[key] = changed
+        elif previous != value:
+            delta[key] = value
+    return delta
+
+def encode_delta(sequence, info, base_sequence=None, base_info=None):
+    if base_info is None or 'error' in info:
+        message = {'seq': sequence, 'full': True}
+        message.update(info)
+    else:
+        message = {'seq': sequence, 'base': base_sequence}
+        message.update(compute_delta(base_info, info))
+    return json.dumps(message)
+
+@app.route('/ping')
+def ping():
+    # Cheap liveness check for the client's circuit breaker; never samples the system
+    return Response(status=204)
+
 @app.route('/system-info')
 def system_info():
-    return jsonify(get_system_info())
+    since = request.args.get('since')
+    if since is not None:
+        # Delta polling: answer from the shared sampler relative to the client's last sequence
+        broadcaster.start()
+        sequence, info = broadcaster.wait_for_sample(0)
+        base_sequence = int(since) if since.isdigit() else 0
+        base_info = broadcaster.get_history(base_sequence)
+        return Response(encode_delta(sequence, info, base_sequence, base_info), mimetype='application/json')
+    info = get_system_info()
+    if wants_frame():
+        return Response(encode_frame(info), mimetype=FRAME_MEDIA_TYPE)
+    return jsonify(info)
+
+class SampleBroadcaster:
+    """Samples system info on a single background thread and hands every new
+    sample to all connected stream clients as soon as it is produced."""
+
+    HISTORY_SIZE = 32
+
+    def __init__(self):
+        self.condition = threading.Condition()
+        self.latest = None
+        self.sequence = 0
+        self.history = OrderedDict()
+        self.thread = None
+
+    def start(self):
+        with self.condition:
+            if self.thread is None:
+                self.thread = threading.Thread(target=self._run, daemon=True)
+                self.thread.start()
+
+    def _run(self):
+        while True:
+            # cpu_percent(interval=1) paces this loop at roughly one sample per second
+            info = get_system_info()
+            with self.condition:
+                self.latest = info
+                self.sequence += 1
+                self.history[self.sequence] = info
+                while len(self.history) > self.HISTORY_SIZE:
+                    self.history.popitem(last=False)
+                self.condition.notify_all()
+
+    def wait_for_sample(self, last_sequence, timeout=5):
+        with self.condition:
+            self.condition.wait_for(lambda: self.sequence != last_sequence, timeout=timeout)
+            return self.sequence, self.latest
+
+    def get_history(self, sequence):
+        with self.condition:
+            return self.history.get(sequence)
+
+broadcaster = SampleBroadcaster()
+
+@sock.route('/system-info/stream')
+def system_info_stream(ws):
+    broadcaster.start()
+    delta = request.args.get('delta') == '1'
+    binary = wants_frame() and not delta
+    last_sequence = 0
+    last_info = None
+    while True:
+        sequence, info = broadcaster.wait_for_sample(last_sequence)
+        if delta:
+            # The client asks for a full sample when it sees a gap in sequence numbers
+            while True:
+                message = ws.receive(timeout=0)
+                if message is None:
+                    break
+                if message == 'resync':
+                    last_info = None
+        if info is None or sequence == last_sequence:
+            continue
+        if delta:
+            ws.send(encode_delta(sequence, info, last_sequence, last_info))
+            last_info = info
+        elif binary:
+            ws.send(encode_frame(info))
+        else:
+            ws.send(json.dumps(info))
+        last_sequence = sequence
 
 if __name__ == '__main__':
     try:
@@ -103,6 +297,8 @@ if __name__ == '__main__':
         local_ip = socket.gethostbyname(hostname)
         print(f"Server running at http://{local_ip}:8880")
         print("Press Ctrl+C to stop the server")
+        # Lets the app find this PC after its address changes
+        discovery_responder.start(8880)
         app.run(host='0.0.0.0', port=8880)
     except Exception as e:
         print(f"Error starting server: {str(e)}") 
\ No newline at end of file
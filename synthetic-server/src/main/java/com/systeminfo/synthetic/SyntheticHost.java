@@ -0,0 +1,82 @@
+package com.systeminfo.synthetic;
+
+import com.systeminfo.display.SystemSnapshot;
+import java.util.Random;
+
+// One simulated PC. Samples are a pure function of the host and the sample
+// sequence number, so any number of request threads can serve the same host
+// without a sampler thread, and every request within one sample period sees the
+// same values, like the Python server's shared sampler.
+class SyntheticHost {
+    private static final float COST_PER_KWH_CENTS = 13f;
+    private static final float HOURS_PER_MONTH = 24f * 30f;
+
+    private final int index;
+    private final int gpus;
+    private final int cores;
+    private final float gpuMemoryTotalGb;
+    private final float gpuPowerLimit;
+
+    SyntheticHost(int index, int gpus, int cores) {
+        this.index = index;
+        this.gpus = Math.min(gpus, SystemSnapshot.MAX_GPUS);
+        this.cores = Math.min(cores, SystemSnapshot.MAX_CPU_CORES);
+        this.gpuMemoryTotalGb = 24f;
+        this.gpuPowerLimit = 450f;
+    }
+
+    // Fills into with sample number sequence. Values drift smoothly with
+    // occasional spikes, so both the flat and the moving paths of the client run.
+    void sample(long sequence, SystemSnapshot into) {
+        into.reset();
+        Random random = new Random(index * 1000003L + sequence);
+        double phase = sequence * 0.05 + index;
+
+        into.cpuUsage = wave(phase, 45f, 35f, random);
+        into.hasCpuUsage = true;
+        into.memoryUsage = wave(phase * 0.1, 60f, 10f, random);
+        into.hasMemoryUsage = true;
+
+        into.coreCount = cores;
+        for (int i = 0; i < cores; i++) {
+            into.coreUsage[i] = wave(phase + i * 0.7, into.cpuUsage, 20f, random);
+        }
+
+        float totalPower = 0f;
+        for (int i = 0; i < gpus; i++) {
+            float usage = random.nextInt(50) == 0 ? 100f : wave(phase * 0.5 + i, 60f, 40f, random);
+            into.gpuUsage[i] = usage;
+            into.hasGpuUsage[i] = true;
+            into.gpuMemoryPercent[i] = wave(phase * 0.02 + i, 50f, 30f, random);
+            into.gpuMemoryTotal[i] = gpuMemoryTotalGb;
+            into.gpuMemoryUsed[i] = round1(gpuMemoryTotalGb * into.gpuMemoryPercent[i] / 100f);
+            into.hasGpuMemory[i] = true;
+            into.gpuPowerDraw[i] = round1(40f + (gpuPowerLimit - 40f) * usage / 100f);
+            into.gpuPowerLimit[i] = gpuPowerLimit;
+            totalPower += into.gpuPowerDraw[i];
+        }
+        into.gpuCount = gpus;
+
+        into.totalPower = round1(totalPower);
+        into.totalPowerLimit = gpus * gpuPowerLimit;
+        into.hasPower = true;
+        float centsPerHour = totalPower / 1000f * COST_PER_KWH_CENTS;
+        into.totalPowerCostInCentsPerHour = round2(centsPerHour);
+        into.totalPowerCostInDollarsPerMonth = round2(centsPerHour * HOURS_PER_MONTH / 100f);
+        into.hasPowerCost = true;
+        into.sequence = sequence;
+    }
+
+    private static float wave(double phase, float centre, float amplitude, Random random) {
+        float value = centre + amplitude * (float) Math.sin(phase) + (random.nextFloat() - 0.5f) * 4f;
+        return round1(Math.max(0f, Math.min(100f, value)));
+    }
+
+    private static float round1(float value) {
+        return Math.round(value * 10f) / 10f;
+    }
+
+    private static float round2(float value) {
+        return Math.round(value * 100f) / 100f;
+    }
+}
@@ -0,0 +1,272 @@
+package com.systeminfo.synthetic;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import com.systeminfo.display.BinarySnapshotDecoder;
+import com.systeminfo.display.SnapshotEncoder;
+import com.systeminfo.display.SystemSnapshot;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Serves the /system-info and /ping contract of server/system_info_server.py
+// with synthetic values, one port per simulated host, so the app's fetch and
+// render pipeline can be load- and soak-tested on a plain Linux box.
+//
+//   --port N            first port; host i listens on port + i (default 8880)
+//   --hosts N           simulated hosts (default 1)
+//   --gpus N            GPUs per host (default 2)
+//   --cores N           CPU cores per host (default 16)
+//   --rate N            new samples per second (default 2, the app's 500 ms poll)
+//   --payload-bytes N   pad JSON responses to at least N bytes (default 0)
+//   --latency-ms N      delay before every response (default 0)
+//   --jitter-ms N       extra random delay of 0..N ms (default 0)
+//   --failure-rate F    fraction of requests that fail, 0..1 (default 0)
+//   --failure-mode M    error (HTTP 500), reset (close without answering) or
+//                       hang (answer after --hang-ms) (default error)
+//   --hang-ms N         delay of a hanging request (default 10000)
+//   --threads N         request threads shared by all hosts (default 64)
+//
+// Requests with ?since= get a full delta-mode message, which the app's delta
+// model accepts, and Accept: application/vnd.systeminfo.frame gets a binary
+// frame. The WebSocket stream is not served; the app falls back to polling.
+public class SyntheticServer {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final long STATS_INTERVAL_SECONDS = 10;
+
+    static class Options {
+        int port = 8880;
+        int hosts = 1;
+        int gpus = 2;
+        int cores = 16;
+        double rate = 2;
+        int payloadBytes = 0;
+        long latencyMs = 0;
+        long jitterMs = 0;
+        double failureRate = 0;
+        String failureMode = "error";
+        long hangMs = 10000;
+        int threads = 64;
+
+        static Options parse(String[] args) {
+            Options options = new Options();
+            for (int i = 0; i < args.length; i += 2) {
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("Missing value for " + args[i]);
+                }
+                String name = args[i];
+                String value = args[i + 1];
+                if ("--port".equals(name)) {
+                    options.port = Integer.parseInt(value);
+                } else if ("--hosts".equals(name)) {
+                    options.hosts = Integer.parseInt(value);
+                } else if ("--gpus".equals(name)) {
+                    options.gpus = Integer.parseInt(value);
+                } else if ("--cores".equals(name)) {
+                    options.cores = Integer.parseInt(value);
+                } else if ("--rate".equals(name)) {
+                    options.rate = Double.parseDouble(value);
+                } else if ("--payload-bytes".equals(name)) {
+                    options.payloadBytes = Integer.parseInt(value);
+                } else if ("--latency-ms".equals(name)) {
+                    options.latencyMs = Long.parseLong(value);
+                } else if ("--jitter-ms".equals(name)) {
+                    options.jitterMs = Long.parseLong(value);
+                } else if ("--failure-rate".equals(name)) {
+                    options.failureRate = Double.parseDouble(value);
+                } else if ("--failure-mode".equals(name)) {
+                    if (!Arrays.asList("error", "reset", "hang").contains(value)) {
+                        throw new IllegalArgumentException("Unknown failure mode " + value);
+                    }
+                    options.failureMode = value;
+                } else if ("--hang-ms".equals(name)) {
+                    options.hangMs = Long.parseLong(value);
+                } else if ("--threads".equals(name)) {
+                    options.threads = Integer.parseInt(value);
+                } else {
+                    throw new IllegalArgumentException("Unknown option " + name);
+                }
+            }
+            if (options.hosts < 1 || options.rate <= 0 || options.threads < 1) {
+                throw new IllegalArgumentException("--hosts, --rate and --threads must be positive");
+            }
+            return options;
+        }
+    }
+
+    private final Options options;
+    private final long startMs = System.currentTimeMillis();
+    private final long samplePeriodMs;
+    private final SnapshotEncoder encoder = new SnapshotEncoder();
+    private final String padding;
+
+    private final AtomicLong served = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong bytesSent = new AtomicLong();
+
+    SyntheticServer(Options options) {
+        this.options = options;
+        this.samplePeriodMs = Math.max(1, Math.round(1000 / options.rate));
+        this.padding = paddingFor(options);
+    }
+
+    public static void main(String[] args) throws IOException {
+        Options options;
+        try {
+            options = Options.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(2);
+            return;
+        }
+        new SyntheticServer(options).start();
+    }
+
+    void start() throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(options.threads);
+        for (int i = 0; i < options.hosts; i++) {
+            SyntheticHost host = new SyntheticHost(i, options.gpus, options.cores);
+            HttpServer server = HttpServer.create(new InetSocketAddress(options.port + i), 0);
+            server.createContext("/system-info", new SystemInfoHandler(host));
+            server.createContext("/ping", new PingHandler());
+            server.setExecutor(executor);
+            server.start();
+            System.out.println("Host " + i + " at http://0.0.0.0:" + (options.port + i));
+        }
+        System.out.println(options.hosts + " hosts, " + options.gpus + " GPUs, " + options.cores
+                + " cores, " + options.rate + " samples/s, failure rate " + options.failureRate
+                + " (" + options.failureMode + ")");
+        Executors.newSingleThreadScheduledExecutor().scheduleAtFixedRate(new Runnable() {
+            private long lastServed = 0;
+
+            @Override
+            public void run() {
+                long total = served.get();
+                System.out.println("served " + total + " (" + (total - lastServed) / STATS_INTERVAL_SECONDS
+                        + "/s), failed " + failed.get() + ", " + bytesSent.get() / 1024 + " KB sent");
+                lastServed = total;
+            }
+        }, STATS_INTERVAL_SECONDS, STATS_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    // Enough padding for the JSON of a typical sample to reach --payload-bytes
+    private static String paddingFor(Options options) {
+        if (options.payloadBytes <= 0) return null;
+        SystemSnapshot sample = new SystemSnapshot();
+        new SyntheticHost(0, options.gpus, options.cores).sample(1, sample);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            Writer writer = new OutputStreamWriter(out, UTF_8);
+            new SnapshotEncoder().writeJson(sample, 1, "", writer);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        int missing = options.payloadBytes - out.size();
+        if (missing <= 0) return null;
+        char[] chars = new char[missing];
+        Arrays.fill(chars, 'x');
+        return new String(chars);
+    }
+
+    private long currentSequence() {
+        return (System.currentTimeMillis() - startMs) / samplePeriodMs + 1;
+    }
+
+    // Applies latency, jitter and failure injection. Returns false if the
+    // request has already been failed and closed.
+    private boolean delayOrFail(HttpExchange exchange) throws IOException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long delay = options.latencyMs + (options.jitterMs > 0 ? random.nextLong(options.jitterMs + 1) : 0);
+        boolean fail = options.failureRate > 0 && random.nextDouble() < options.failureRate;
+        if (fail && "hang".equals(options.failureMode)) {
+            delay += options.hangMs;
+        }
+        if (delay > 0) {
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (!fail) return true;
+        failed.incrementAndGet();
+        if ("error".equals(options.failureMode)) {
+            exchange.sendResponseHeaders(500, -1);
+            exchange.close();
+            return false;
+        }
+        if ("reset".equals(options.failureMode)) {
+            // Closing before any response makes the client see a dropped connection
+            exchange.close();
+            return false;
+        }
+        return true; // A hang still answers, just late
+    }
+
+    private class SystemInfoHandler implements HttpHandler {
+        private final SyntheticHost host;
+
+        SystemInfoHandler(SyntheticHost host) {
+            this.host = host;
+        }
+
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+            try {
+                if (!delayOrFail(exchange)) return;
+                SystemSnapshot sample = new SystemSnapshot();
+                long sequence = currentSequence();
+                host.sample(sequence, sample);
+
+                String accept = exchange.getRequestHeaders().getFirst("Accept");
+                String query = exchange.getRequestURI().getQuery();
+                boolean delta = query != null && query.contains("since=");
+                byte[] body;
+                if (!delta && accept != null && accept.contains(BinarySnapshotDecoder.FRAME_MEDIA_TYPE)) {
+                    ByteBuffer frame = ByteBuffer.allocate(SnapshotEncoder.frameSize(sample));
+                    encoder.writeFrame(sample, frame);
+                    body = frame.array();
+                    exchange.getResponseHeaders().set("Content-Type", BinarySnapshotDecoder.FRAME_MEDIA_TYPE);
+                } else {
+                    ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(1024, options.payloadBytes));
+                    Writer writer = new OutputStreamWriter(out, UTF_8);
+                    encoder.writeJson(sample, delta ? sequence : 0, padding, writer);
+                    body = out.toByteArray();
+                    exchange.getResponseHeaders().set("Content-Type", "application/json");
+                }
+                exchange.sendResponseHeaders(200, body.length);
+                OutputStream response = exchange.getResponseBody();
+                response.write(body);
+                response.close();
+                served.incrementAndGet();
+                bytesSent.addAndGet(body.length);
+            } finally {
+                exchange.close();
+            }
+        }
+    }
+
+    private class PingHandler implements HttpHandler {
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+            try {
+                if (!delayOrFail(exchange)) return;
+                exchange.sendResponseHeaders(204, -1);
+            } finally {
+                exchange.close();
+            }
+        }
+    }
+}